@@ -0,0 +1,77 @@
+package com.example.kidic.config;
+
+import com.example.kidic.repository.ChildRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Checks that a child belongs to a family with one primary-key lookup on
+ * (id, family_id). Answers are remembered for the rest of the request, so
+ * services called one after another do not repeat the query.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChildAccessGuard {
+    private static final String MEMO_ATTRIBUTE = ChildAccessGuard.class.getName() + ".MEMO";
+
+    private final ChildRepository childRepository;
+
+    public boolean isMember(UUID familyId, Long childId) {
+        if (familyId == null || childId == null) {
+            return false;
+        }
+        Map<String, Boolean> memo = requestMemo();
+        if (memo == null) {
+            return childRepository.existsByIdAndFamilyId(childId, familyId);
+        }
+        return memo.computeIfAbsent(familyId + ":" + childId,
+                key -> childRepository.existsByIdAndFamilyId(childId, familyId));
+    }
+
+    /**
+     * Throws unless the child belongs to the family. A child that does not exist is
+     * reported the same way, so ids of other families cannot be probed.
+     */
+    public void requireAccess(UUID familyId, Long childId) {
+        if (familyId == null) {
+            throw new IllegalArgumentException("User does not belong to any family");
+        }
+        if (!isMember(familyId, childId)) {
+            throw new IllegalArgumentException("Child does not belong to your family");
+        }
+    }
+
+    /**
+     * Same as {@link #requireAccess(UUID, Long)} for the family of the authenticated parent
+     */
+    public void requireAccess(Long childId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof ParentPrincipal principal)) {
+            throw new IllegalArgumentException("Authentication required");
+        }
+        requireAccess(principal.getFamilyId(), childId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Boolean> requestMemo() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return null;
+        }
+        Map<String, Boolean> memo = (Map<String, Boolean>) requestAttributes.getAttribute(MEMO_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<>();
+            requestAttributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.kidic.config;
+
+import com.example.kidic.dto.FamilyResponseDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Read-through cache of family summaries keyed by family id. Size and TTL come
+ * from {@code spring.cache.caffeine.spec}; hits and misses are published as the
+ * {@code cache.gets} metric. Anything that changes a family's parents or children
+ * must call {@link #evict(UUID)}.
+ */
+@Component
+@RequiredArgsConstructor
+public class FamilyCache {
+    public static final String CACHE_NAME = "families";
+
+    private final CacheManager cacheManager;
+
+    public FamilyResponseDTO get(UUID familyId, Callable<FamilyResponseDTO> loader) {
+        try {
+            // Concurrent misses for the same family share one load
+            return cache().get(familyId, loader);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Evicts now and again after the surrounding transaction commits, so a read
+     * that ran during the transaction cannot leave the old summary behind
+     */
+    public void evict(UUID familyId) {
+        if (familyId == null) {
+            return;
+        }
+        cache().evict(familyId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache().evict(familyId);
+                }
+            });
+        }
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + CACHE_NAME + "' is not configured");
+        }
+        return cache;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.kidic.config;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,8 +8,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
@@ -17,12 +16,13 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final ParentPrincipalCache parentPrincipalCache;
     @Override
     protected void doFilterInternal(
             @NotNull HttpServletRequest request,
@@ -31,18 +31,26 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String token;
+        final Claims claims;
         final String userEmail;
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
         token = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(token);
+        // Parsed once here; services asking for the same token reuse these claims
+        claims = jwtService.extractClaims(token);
+        request.setAttribute(JwtService.CLAIMS_ATTRIBUTE, claims);
+        userEmail = claims.getSubject();
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if(jwtService.isTokenValid(token, userDetails)) {
+            // The principal comes from the verified claims, so no database access is needed here
+            ParentPrincipal principal = jwtService.toPrincipal(claims);
+            if (principal == null) {
+                principal = parentPrincipalCache.get(userEmail).orElse(null);
+            }
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
+                        principal, null, List.of()
                 );
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
@@ -1,15 +1,21 @@
 package com.example.kidic.config;
 
 import com.example.kidic.entity.Parent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,6 +25,24 @@ import java.util.function.Function;
 @Service
 public class JwtService {
     private static final String SECRET_KEY = "4f714a748e4ba9ead2c9af8447bcb33f7ed0cb1043ca08ac0254a4fa313d51bb";
+
+    /** Request attribute holding the claims verified for the current request. */
+    public static final String CLAIMS_ATTRIBUTE = JwtService.class.getName() + ".CLAIMS";
+    private static final String TOKEN_ATTRIBUTE = JwtService.class.getName() + ".TOKEN";
+
+    private static final int MAX_CACHED_TOKENS = 10_000;
+    private static final Duration CACHED_TOKEN_TTL = Duration.ofMinutes(5);
+
+    // Key and parser are immutable and thread-safe, so they are built once
+    private final Key signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    private final JwtParser jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+
+    /** Tokens whose signature was already verified, so hot tokens skip the HMAC check. */
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .expireAfterWrite(CACHED_TOKEN_TTL)
+            .build();
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -28,11 +52,29 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build().parseClaimsJws(token)
-                .getBody();
+    /**
+     * Returns the verified claims of the token. The result is reused for the rest of the
+     * current request and cached until it expires, so a token is parsed at most once per request.
+     */
+    public Claims extractClaims(String token) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && token.equals(requestAttributes.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            return (Claims) requestAttributes.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        Claims claims = verifiedTokens.getIfPresent(token);
+        if (claims == null || isExpired(claims)) {
+            // Parsing verifies the signature and rejects expired tokens
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(token, claims);
+        }
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(TOKEN_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+            requestAttributes.setAttribute(CLAIMS_ATTRIBUTE, claims, RequestAttributes.SCOPE_REQUEST);
+        }
+        return claims;
     }
 
     public UUID extractFamilyId(String token) {
@@ -44,16 +86,36 @@ public class JwtService {
         return UUID.fromString(familyIdObj.toString());
     }
 
+    public Long extractParentId(String token) {
+        Object parentIdObj = extractClaims(token).get("parent_id");
+        if (parentIdObj == null) {
+            throw new IllegalArgumentException("Token does not identify a parent, please log in again");
+        }
+        return ((Number) parentIdObj).longValue();
+    }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Builds the principal from the claims alone, or returns null for tokens
+     * issued before the parent id claim was added.
+     */
+    public ParentPrincipal toPrincipal(Claims claims) {
+        Object parentIdObj = claims.get("parent_id");
+        if (parentIdObj == null) {
+            return null;
+        }
+        Object familyIdObj = claims.get("family_id");
+        return new ParentPrincipal(
+                ((Number) parentIdObj).longValue(),
+                claims.getSubject(),
+                familyIdObj == null ? null : UUID.fromString(familyIdObj.toString()));
     }
+
     public String generateToken(UserDetails userDetails) {
         Parent parent = (Parent) userDetails;  // since your Parent implements UserDetails
 
         Map<String, Object> extraClaims = new HashMap<>();
 
+        extraClaims.put("parent_id", parent.getId());
         if (parent.getFamily() != null) {
             extraClaims.put("family_id", parent.getFamily().getId());
         }
@@ -70,20 +132,20 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = this.extractUsername(token);
-        return !isTokenExpired(token) && username.equals(userDetails.getUsername());
+        return isTokenValid(extractClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpirationDate(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        String username = claims.getSubject();
+        return !isExpired(claims) && username.equals(userDetails.getUsername());
     }
 
-    private Date extractExpirationDate(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 }
@@ -0,0 +1,23 @@
+package com.example.kidic.config;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.UUID;
+
+/**
+ * Lightweight authenticated parent, built from token claims so that
+ * authenticating a request does not load the Parent entity. Its name is the
+ * parent id, which is also the key of the parent's WebSocket user destinations.
+ */
+@Value
+public class ParentPrincipal implements AuthenticatedPrincipal {
+    Long id;
+    String email;
+    UUID familyId; // null when the parent has no family yet
+
+    @Override
+    public String getName() {
+        return String.valueOf(id);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.kidic.config;
+
+import com.example.kidic.repository.ParentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caches the security details of parents whose token does not carry the
+ * parent id claim yet. Entries must be evicted when a parent's profile or
+ * family changes.
+ */
+@Component
+public class ParentPrincipalCache {
+    private final ParentRepository parentRepository;
+    private final Cache<String, ParentPrincipal> principals;
+
+    public ParentPrincipalCache(
+            ParentRepository parentRepository,
+            @Value("${kidic.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${kidic.security.principal-cache.ttl:10m}") Duration ttl) {
+        this.parentRepository = parentRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<ParentPrincipal> get(String email) {
+        ParentPrincipal principal = principals.getIfPresent(email);
+        if (principal == null) {
+            principal = parentRepository.findPrincipalByEmail(email).orElse(null);
+            if (principal != null) {
+                principals.put(email, principal);
+            }
+        }
+        return Optional.ofNullable(principal);
+    }
+
+    public void evict(String email) {
+        principals.invalidate(email);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.kidic.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -18,6 +19,9 @@ public class SecurityConfiguration {
     private final AuthenticationProvider authenticationProvider;
     private final JwtAuthFilter jwtAuthFilter;
 
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
@@ -25,7 +29,14 @@ public class SecurityConfiguration {
 
                 // Authorization rules
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**", "/api/test/**", "/actuator/**","/api/review/**").permitAll()
+                        .requestMatchers("/api/auth/**", "/api/test/**", "/actuator/health/**","/api/review/**").permitAll()
+                        // Metrics name cache, JVM, datasource and request details, so they are only
+                        // served to operators on the management port, never to app accounts
+                        .requestMatchers(request -> request.getLocalPort() == managementPort
+                                && request.getRequestURI().startsWith("/actuator/")).permitAll()
+                        .requestMatchers("/actuator/**").denyAll()
+                        // STOMP connections authenticate with the JWT in the CONNECT frame
+                        .requestMatchers("/ws/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .cors(cors->{})
@@ -0,0 +1,99 @@
+package com.example.kidic.config;
+
+import com.example.kidic.service.NotificationPusher;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Authenticates STOMP connections with the same JWT as the REST API. The token is sent in the
+ * CONNECT frame's Authorization header; the session principal is named after the parent id, so
+ * user destinations resolve straight to the parent's sessions.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+    public static final String FAMILY_TOPIC_PREFIX = "/topic/family.";
+    public static final String USER_QUEUE_PREFIX = "/user/queue/";
+
+    private final JwtService jwtService;
+    private final ParentPrincipalCache parentPrincipalCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkSubscription(accessor.getDestination(), accessor.getUser());
+        }
+        return message;
+    }
+
+    private Principal authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new MessageDeliveryException("Missing bearer token");
+        }
+        ParentPrincipal principal;
+        try {
+            Claims claims = jwtService.extractClaims(authHeader.substring(7));
+            principal = jwtService.toPrincipal(claims);
+            if (principal == null) {
+                principal = parentPrincipalCache.get(claims.getSubject()).orElse(null);
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+        if (principal == null) {
+            throw new MessageDeliveryException("Unknown parent");
+        }
+        return new UsernamePasswordAuthenticationToken(principal, null, List.of());
+    }
+
+    /**
+     * Clients may only subscribe to their own user queues, the broadcast topic and their own
+     * family's topic. Everything else on the broker, such as other families' topics, the relay's
+     * user registry and user destination topics or the session queues behind user destinations,
+     * is refused. Brokers match subscriptions with patterns, so patterns are refused as well.
+     */
+    private void checkSubscription(String destination, Principal user) {
+        if (destination == null) {
+            throw new MessageDeliveryException("Missing destination");
+        }
+        if (isPattern(destination)) {
+            throw new MessageDeliveryException("Access denied: pattern subscriptions are not allowed");
+        }
+        if (destination.startsWith(USER_QUEUE_PREFIX) || destination.equals(NotificationPusher.BROADCAST_TOPIC)) {
+            return;
+        }
+        if (!destination.startsWith(FAMILY_TOPIC_PREFIX)) {
+            throw new MessageDeliveryException("Access denied: " + destination);
+        }
+        ParentPrincipal principal = user instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getPrincipal() instanceof ParentPrincipal parent ? parent : null;
+        if (principal == null || principal.getFamilyId() == null
+                || !destination.equals(FAMILY_TOPIC_PREFIX + principal.getFamilyId())) {
+            throw new MessageDeliveryException("Access denied: not a member of this family");
+        }
+    }
+
+    private static boolean isPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('#') >= 0
+                || destination.indexOf('{') >= 0 || destination.indexOf('?') >= 0;
+    }
+}
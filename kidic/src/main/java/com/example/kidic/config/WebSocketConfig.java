@@ -1,21 +1,97 @@
 package com.example.kidic.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    /**
+     * "simple" keeps subscriptions in this JVM (single node, tests); "relay" forwards them to an
+     * external STOMP broker (e.g. RabbitMQ with the STOMP plugin) shared by every node.
+     */
+    @Value("${kidic.websocket.broker.mode:simple}")
+    private String brokerMode;
+    @Value("${kidic.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+    @Value("${kidic.websocket.broker.relay.port:61613}")
+    private int relayPort;
+    @Value("${kidic.websocket.broker.relay.login:guest}")
+    private String relayLogin;
+    @Value("${kidic.websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+    @Value("${kidic.websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Channel thread pools; the bounded queues keep a burst from growing without limit
+    @Value("${kidic.websocket.inbound.pool-size:8}")
+    private int inboundPoolSize;
+    @Value("${kidic.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+    @Value("${kidic.websocket.outbound.pool-size:8}")
+    private int outboundPoolSize;
+    @Value("${kidic.websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    // A session whose buffered frames exceed the size limit for longer than the time limit is closed
+    @Value("${kidic.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+    @Value("${kidic.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    @Value("${kidic.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    private final AtomicInteger openSessions = new AtomicInteger();
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple broker for real-time messaging
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            // Share connected users between nodes, so a user destination resolves on whichever
+            // node the parent is connected to
+            relay.setUserDestinationBroadcast("/topic/unresolved-user-destination");
+            relay.setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else if ("simple".equalsIgnoreCase(brokerMode)) {
+            // Enable a simple broker for real-time messaging
+            config.enableSimpleBroker("/topic", "/queue");
+        } else {
+            throw new IllegalStateException("Unknown kidic.websocket.broker.mode: " + brokerMode);
+        }
         config.setApplicationDestinationPrefixes("/app"); // client → server
-        config.setUserDestinationPrefix("/family"); // per-family notifications
+        // Per-parent queues, e.g. /user/queue/notifications; family-wide events go to /topic/family.{familyId}
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -23,4 +99,70 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Endpoint where clients connect (SockJS fallback enabled)
         registry.addEndpoint("/ws").setAllowedOrigins("*").withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor);
+        registration.taskExecutor(channelExecutor("inbound", inboundPoolSize, inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("outbound", outboundPoolSize, outboundQueueCapacity));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeLimit);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("kidic.websocket.sessions", openSessions, AtomicInteger::get)
+                .description("Open WebSocket sessions on this node")
+                .register(registry);
+        Counter slowSessions = Counter.builder("kidic.websocket.sessions.slow.closed")
+                .description("Sessions closed because they could not keep up with outgoing messages")
+                .register(registry);
+        registration.addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                openSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                openSessions.decrementAndGet();
+                if (closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE)) {
+                    slowSessions.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        });
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String channel, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ws-" + channel + "-");
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            // getQueueSize and getActiveCount report 0 until the executor is initialized
+            Gauge.builder("kidic.websocket.channel.queued", executor, ThreadPoolTaskExecutor::getQueueSize)
+                    .tag("channel", channel)
+                    .description("Messages waiting for a channel thread")
+                    .register(registry);
+            Gauge.builder("kidic.websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                    .tag("channel", channel)
+                    .register(registry);
+        }
+        return executor;
+    }
 }
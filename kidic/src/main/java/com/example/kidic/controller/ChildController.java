@@ -3,16 +3,24 @@ package com.example.kidic.controller;
 import com.example.kidic.dto.ChildRequestDTO;
 import com.example.kidic.dto.ChildResponseDTO;
 import com.example.kidic.dto.ChildUpdateRequestDTO;
+import com.example.kidic.service.ChildExportService;
 import com.example.kidic.service.ChildService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("api/child")
 public class ChildController {
     @Autowired
     private ChildService childService;
+    @Autowired
+    private ChildExportService childExportService;
     @GetMapping("{id}")
     public ResponseEntity<ChildResponseDTO> getChild(@PathVariable Long id
             , @RequestHeader("Authorization") String authHeader) {
@@ -45,4 +53,21 @@ public class ChildController {
         return ResponseEntity.ok(childService.update(childId, requestDTO,token));
     }
 
+    /**
+     * Everything stored about the child as a ZIP archive, streamed while it is written
+     * GET /api/child/{id}/export
+     */
+    @GetMapping("{id}/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("id") Long childId
+            , @RequestHeader("Authorization") String authHeader) {
+        String token = authHeader.replace("Bearer ", "");
+        ChildResponseDTO child = childExportService.getExportableChild(childId, token);
+        StreamingResponseBody body = out -> childExportService.writeArchive(child, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(ChildExportService.archiveName(child)).build().toString())
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
 }
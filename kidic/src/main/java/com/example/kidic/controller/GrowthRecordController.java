@@ -1,12 +1,22 @@
 package com.example.kidic.controller;
 
+import com.example.kidic.dto.GrowthChartDTO;
+import com.example.kidic.dto.GrowthImportReportDTO;
+import com.example.kidic.dto.GrowthRecordResponseDTO;
+import com.example.kidic.dto.GrowthSummaryDTO;
 import com.example.kidic.entity.GrowthRecord;
+import com.example.kidic.service.GrowthRecordImportService;
 import com.example.kidic.service.GrowthRecordService;
+import com.example.kidic.service.GrowthSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -17,8 +27,14 @@ public class GrowthRecordController {
     @Autowired
     private GrowthRecordService growthRecordService;
 
+    @Autowired
+    private GrowthSummaryService growthSummaryService;
+
+    @Autowired
+    private GrowthRecordImportService growthRecordImportService;
+
     @GetMapping("/children/{childId}")
-    public ResponseEntity<List<GrowthRecord>> listForChild(
+    public ResponseEntity<List<GrowthRecordResponseDTO>> listForChild(
             @PathVariable Long childId,
             @RequestHeader("Authorization") String authHeader) {
         String token = authHeader.replace("Bearer ", "");
@@ -26,6 +42,29 @@ public class GrowthRecordController {
         return ResponseEntity.ok(growthRecordService.listForChild(childId));
     }
 
+    /**
+     * Height and weight series for plotting, downsampled to at most {@code points} each
+     * GET /api/growth-records/children/{childId}/chart
+     */
+    @GetMapping("/children/{childId}/chart")
+    public ResponseEntity<GrowthChartDTO> getChart(
+            @PathVariable Long childId,
+            @RequestParam(value = "points", defaultValue = "" + GrowthRecordService.DEFAULT_CHART_POINTS) int points,
+            @RequestHeader("Authorization") String authHeader) {
+        return ResponseEntity.ok(growthRecordService.getChart(childId, points));
+    }
+
+    /**
+     * Latest values, extremes and growth velocity of the child's height and weight
+     * GET /api/growth-records/children/{childId}/summary
+     */
+    @GetMapping("/children/{childId}/summary")
+    public ResponseEntity<GrowthSummaryDTO> getSummary(
+            @PathVariable Long childId,
+            @RequestHeader("Authorization") String authHeader) {
+        return ResponseEntity.ok(growthSummaryService.getSummary(childId));
+    }
+
     @PostMapping("/children/{childId}")
     public ResponseEntity<GrowthRecord> addForChild(
             @PathVariable Long childId,
@@ -49,6 +88,22 @@ public class GrowthRecordController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Bulk import from a text/csv (with a header row) or application/x-ndjson request body,
+     * read as it arrives. Invalid rows are listed in the report, the others are saved.
+     * POST /api/growth-records/children/{childId}/import
+     */
+    @PostMapping(value = "/children/{childId}/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<GrowthImportReportDTO> importForChild(
+            @PathVariable Long childId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader("Authorization") String authHeader,
+            InputStream body) throws IOException {
+        GrowthRecordImportService.Format format =
+                GrowthRecordImportService.Format.fromContentType(MediaType.parseMediaType(contentType));
+        return ResponseEntity.ok(growthRecordImportService.importForChild(childId, format, body));
+    }
+
     @PutMapping("/children/{childId}/{recordId}")
     public ResponseEntity<GrowthRecord> editForChild(
             @PathVariable Long childId,
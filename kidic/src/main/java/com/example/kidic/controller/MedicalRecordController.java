@@ -1,5 +1,6 @@
 package com.example.kidic.controller;
 
+import com.example.kidic.dto.MedicalRecordFileDTO;
 import com.example.kidic.dto.MedicalRecordRequestDTO;
 import com.example.kidic.dto.MedicalRecordResponseDTO;
 import com.example.kidic.dto.MedicalRecordWithFileRequestDTO;
@@ -7,13 +8,21 @@ import com.example.kidic.service.MedicalRecordService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 
@@ -171,25 +180,94 @@ public class MedicalRecordController {
     /**
      * Download a file associated with a medical record
      * GET /api/medical-records/children/{childId}/{recordId}/file
+     * Supports a single HTTP Range so large video/audio attachments can be resumed, and
+     * If-None-Match/If-Modified-Since so unchanged files are not downloaded again
      */
     @GetMapping("/children/{childId}/{recordId}/file")
-    public ResponseEntity<byte[]> downloadFile(
+    public ResponseEntity<StreamingResponseBody> downloadFile(
             @PathVariable Long childId,
             @PathVariable Long recordId,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader("Authorization") String authHeader,
+            WebRequest webRequest) {
 
         String token = extractTokenFromHeader(authHeader);
-        MedicalRecordResponseDTO record = medicalRecordService.getMedicalRecord(childId, recordId, token);
+        MedicalRecordFileDTO file = medicalRecordService.getMedicalRecordFile(childId, recordId, token);
 
-        if (record.getFileContent() == null || record.getFileContent().length == 0) {
+        if (file.getFileSize() == null || file.getFileSize() == 0) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok()
-                .contentType(org.springframework.http.MediaType.parseMediaType(record.getFileContentType()))
-                .header("Content-Disposition", "attachment; filename=\"" + record.getFileName() + "\"")
-                .header("Content-Length", String.valueOf(record.getFileSize()))
-                .body(record.getFileContent());
+        // Access can be revoked and records are health data, so caches must revalidate every
+        // time and only the browser may keep a copy. Revalidation is cheap: the checks above
+        // read only metadata, never the file.
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        String eTag = file.getFileHash() == null ? null : "\"" + file.getFileHash() + "\"";
+        long lastModified = file.getFileUploadedAt() == null ? -1 : file.getFileUploadedAt().toEpochMilli();
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        long fileSize = file.getFileSize();
+        long start = 0;
+        long end = fileSize - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        // A resumed download of a file that has since been replaced gets the whole new file
+        if (rangeHeader != null && ifRange != null && !ifRangeMatches(ifRange, eTag, lastModified)) {
+            rangeHeader = null;
+        }
+        if (rangeHeader != null) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() != 1 || ranges.get(0).getRangeStart(fileSize) >= fileSize) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+                        .build();
+            }
+            start = ranges.get(0).getRangeStart(fileSize);
+            end = ranges.get(0).getRangeEnd(fileSize);
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+
+        long offset = start;
+        long length = end - start + 1;
+        StreamingResponseBody body = out -> medicalRecordService.writeMedicalRecordFile(file, offset, length, out);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(MediaType.parseMediaType(file.getFileContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentLength(length)
+                .cacheControl(cacheControl);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (lastModified > 0) {
+            response.lastModified(lastModified);
+        }
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+        }
+        return response.body(body);
+    }
+
+    // If-Range holds either a strong ETag or an HTTP date, see RFC 9110 section 13.1.5
+    private static boolean ifRangeMatches(String ifRange, String eTag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified > 0 && date == lastModified / 1000 * 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
     }
 
     /**
@@ -1,9 +1,16 @@
 package com.example.kidic.controller;
 
 import com.example.kidic.config.JwtService;
+import com.example.kidic.dto.MarkNotificationsReadRequestDTO;
+import com.example.kidic.dto.NotificationFeedPageDTO;
+import com.example.kidic.dto.NotificationResponseDTO;
+import com.example.kidic.dto.UnreadCountDTO;
 import com.example.kidic.entity.Notification;
 import com.example.kidic.service.NotificationService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -30,19 +37,42 @@ public class NotificationController {
         return "notification sent";
     }
 
-    // Send broadcast notification
+    // Send broadcast notification; stored once for all parents
     @PostMapping("/broadcast")
-    public String broadcastNotification(@RequestParam String message,
+    public ResponseEntity<NotificationResponseDTO> broadcastNotification(@RequestParam String message,
                                               @RequestParam(defaultValue = "INFO") Notification.NotificationType type) {
-        notificationService.createBroadcastNotificationsForAllUsers(message, type);
-        return "notifications broadcasted";
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(notificationService.createBroadcastNotification(message, type));
+    }
 
+    // Mark a broadcast as read for the calling parent
+    @PutMapping("/broadcast/{id}/read")
+    public void markBroadcastAsRead(@RequestHeader("Authorization") String authHeader,
+                                    @PathVariable Long id) {
+        String token = authHeader.substring(7);
+        notificationService.markBroadcastAsRead(id, jwtService.extractParentId(token));
     }
 
 
+    // Page through the caller's notifications, newest first
+    @GetMapping("/feed")
+    public NotificationFeedPageDTO getFeed(@RequestHeader("Authorization") String authHeader,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit) {
+        String token = authHeader.substring(7);
+        return notificationService.getFeedPage(jwtService.extractParentId(token), cursor, limit);
+    }
+
+    // Badge count for the caller
+    @GetMapping("/unread-count")
+    public UnreadCountDTO getUnreadCount(@RequestHeader("Authorization") String authHeader) {
+        String token = authHeader.substring(7);
+        return new UnreadCountDTO(notificationService.getUnreadCount(jwtService.extractParentId(token)));
+    }
+
     // Get all notifications for a user
     @GetMapping("/{parentId}")
-    public List<Notification> getNotifications(@RequestHeader("Authorization") String authHeader,
+    public List<NotificationResponseDTO> getNotifications(@RequestHeader("Authorization") String authHeader,
                                                @PathVariable Long parentId) {
         String token = authHeader.substring(7);
         UUID familyId = jwtService.extractFamilyId(token);
@@ -50,13 +80,21 @@ public class NotificationController {
     }
 
     @GetMapping("/unread/{parentId}")
-    public List<Notification> getUnreadNotifications(@RequestHeader("Authorization") String authHeader,
+    public List<NotificationResponseDTO> getUnreadNotifications(@RequestHeader("Authorization") String authHeader,
                                                      @PathVariable Long parentId) {
         String token = authHeader.substring(7);
         UUID familyId = jwtService.extractFamilyId(token);
         return notificationService.getUnreadNotifications(parentId);
     }
 
+    // Mark many of the caller's notifications as read at once; safe to repeat
+    @PutMapping("/read")
+    public UnreadCountDTO markAllAsRead(@RequestHeader("Authorization") String authHeader,
+                                        @Valid @RequestBody MarkNotificationsReadRequestDTO request) {
+        String token = authHeader.substring(7);
+        return notificationService.markAsRead(jwtService.extractParentId(token), request);
+    }
+
     // Mark as read
     @PutMapping("/{id}/read")
     public void markAsRead(@PathVariable Long id) {
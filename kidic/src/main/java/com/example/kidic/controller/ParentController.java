@@ -1,12 +1,24 @@
 package com.example.kidic.controller;
 
 import com.example.kidic.dto.ParentDetailsDTO;
+import com.example.kidic.dto.ParentProfilePictureDTO;
 import com.example.kidic.dto.ParentResponseDTO;
 import com.example.kidic.dto.ParentUpdateRequestDTO;
+import com.example.kidic.entity.ImageVariant;
+import com.example.kidic.service.ImageVariantService;
 import com.example.kidic.service.ParentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("api/parent")
@@ -26,7 +38,11 @@ public class ParentController {
             @RequestBody ParentUpdateRequestDTO requestDto
     ){
         String token = authHead.substring(7);
-        return ResponseEntity.ok(parentService.updateParent(token, requestDto));
+        try {
+            return ResponseEntity.ok(parentService.updateParent(token, requestDto));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to process profile picture: " + e.getMessage());
+        }
     }
     @GetMapping("all-details")
     public ResponseEntity<ParentDetailsDTO> getAllDetails(
@@ -34,4 +50,80 @@ public class ParentController {
         String token = authHead.substring(7);
         return ResponseEntity.ok(parentService.getAllDetails(token));
     }
+
+    /**
+     * Upload profile picture
+     * POST /api/parent/profile-picture
+     */
+    @PostMapping(value = "/profile-picture", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ParentResponseDTO> uploadProfilePicture(
+            @RequestHeader("Authorization") String authHead,
+            @RequestParam("file") MultipartFile file) {
+        String token = authHead.substring(7);
+        try {
+            return ResponseEntity.ok(parentService.uploadProfilePicture(token, file));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to process profile picture: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get profile picture of a parent in the caller's family, or a downscaled copy of it with
+     * {@code size=thumbnail|medium}
+     * GET /api/parent/{parentId}/profile-picture
+     */
+    @GetMapping("/{parentId}/profile-picture")
+    public ResponseEntity<StreamingResponseBody> getProfilePicture(
+            @RequestHeader("Authorization") String authHead,
+            @PathVariable Long parentId,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestParam(value = "v", required = false) String version,
+            WebRequest webRequest) {
+        String token = authHead.substring(7);
+        ParentProfilePictureDTO picture = parentService.getProfilePicture(parentId, token);
+        if (picture.getProfilePictureSize() == null || picture.getProfilePictureSize() == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        ImageVariant variant = parentService
+                .findProfilePictureVariant(picture, ImageVariant.Size.fromParameter(size))
+                .orElse(null);
+
+        // Pictures are content-addressed, so the hash is a strong validator
+        String current = ImageVariantService.version(picture.getProfilePictureHash());
+        CacheControl cacheControl = current != null && current.equals(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable()
+                : CacheControl.maxAge(Duration.ofHours(1)).cachePrivate();
+        String hash = variant != null ? variant.getVariantHash() : picture.getProfilePictureHash();
+        String eTag = hash == null ? null : "\"" + hash + "\"";
+        long lastModified = picture.getProfilePictureUploadedAt() == null
+                ? -1 : picture.getProfilePictureUploadedAt().toEpochMilli();
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        if (variant != null) {
+            StreamingResponseBody body = out -> parentService.writeProfilePictureVariant(variant, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(variant.getContentType()))
+                    .contentLength(variant.getByteSize())
+                    .cacheControl(cacheControl)
+                    .eTag(eTag)
+                    .body(body);
+        }
+
+        StreamingResponseBody body = out -> parentService.writeProfilePicture(picture, out);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(picture.getProfilePictureContentType() == null
+                        ? MediaType.APPLICATION_OCTET_STREAM
+                        : MediaType.parseMediaType(picture.getProfilePictureContentType()))
+                .contentLength(picture.getProfilePictureSize())
+                .cacheControl(cacheControl);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (lastModified > 0) {
+            response.lastModified(lastModified);
+        }
+        return response.body(body);
+    }
 }
@@ -1,15 +1,22 @@
 package com.example.kidic.controller;
 
+import com.example.kidic.dto.ProductSummaryDTO;
+import com.example.kidic.entity.ImageVariant;
 import com.example.kidic.entity.Product;
+import com.example.kidic.service.ImageVariantService;
 import com.example.kidic.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 
@@ -20,10 +27,21 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    /**
+     * List the catalog without images. Clients revalidate with If-None-Match and get a 304
+     * while the catalog is unchanged.
+     */
     @GetMapping
-    public ResponseEntity<List<Product>> listProducts(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<ProductSummaryDTO>> listProducts(
+            @RequestHeader("Authorization") String authHeader,
+            WebRequest webRequest) {
         String token = extractTokenFromHeader(authHeader);
-        return ResponseEntity.ok(productService.listProducts());
+        ProductService.Catalog catalog = productService.getCatalog();
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(catalog.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.eTag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(catalog.eTag()).cacheControl(cacheControl).body(catalog.products());
     }
 
     @PostMapping
@@ -88,28 +106,72 @@ public class ProductController {
     }
 
     /**
-     * Get product image
+     * Get product image, or a downscaled copy of it with {@code size=thumbnail|medium}.
+     * Requests carrying the current {@code v} from the catalog are cached for good.
      * GET /api/products/{productId}/image
      */
     @GetMapping("/{productId}/image")
-    public ResponseEntity<byte[]> getProductImage(@PathVariable Long productId) {
+    public ResponseEntity<StreamingResponseBody> getProductImage(
+            @PathVariable Long productId,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestParam(value = "v", required = false) String version,
+            WebRequest webRequest) {
         try {
             Product product = productService.getProduct(productId);
 
-            if (product.getImageContent() == null || product.getImageContent().length == 0) {
+            if (product.getImageSize() == null || product.getImageSize() == 0) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok()
+            // Images ImageIO cannot decode have no variants, those fall back to the original
+            ImageVariant variant = productService
+                    .findImageVariant(product, ImageVariant.Size.fromParameter(size))
+                    .orElse(null);
+            String hash = variant != null ? variant.getVariantHash() : product.getImageHash();
+            String eTag = hash == null ? null : "\"" + hash + "\"";
+            CacheControl cacheControl = imageCacheControl(product, version);
+            long lastModified = product.getImageUploadedAt() == null ? -1 : product.getImageUploadedAt().toEpochMilli();
+            if (webRequest.checkNotModified(eTag, lastModified)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+            }
+
+            if (variant != null) {
+                StreamingResponseBody body = out -> productService.writeImageVariant(variant, out);
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(variant.getContentType()))
+                        .contentLength(variant.getByteSize())
+                        .eTag(eTag)
+                        .cacheControl(cacheControl)
+                        .body(body);
+            }
+
+            StreamingResponseBody body = out -> productService.writeProductImage(product, out);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                     .contentType(org.springframework.http.MediaType.parseMediaType(product.getImageContentType()))
                     .header("Content-Disposition", "inline; filename=\"" + product.getImageName() + "\"")
                     .header("Content-Length", String.valueOf(product.getImageSize()))
-                    .body(product.getImageContent());
+                    .cacheControl(cacheControl);
+            if (eTag != null) {
+                response.eTag(eTag);
+            }
+            if (lastModified > 0) {
+                response.lastModified(lastModified);
+            }
+            return response.body(body);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    private CacheControl imageCacheControl(Product product, String version) {
+        String current = ImageVariantService.version(product.getImageHash());
+        if (current != null && current.equals(version)) {
+            // A new upload changes the version and so the URL
+            return CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+        }
+        return CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+    }
+
     /**
      * Delete product image
      * DELETE /api/products/{productId}/image
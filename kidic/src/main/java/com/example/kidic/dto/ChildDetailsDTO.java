@@ -1,14 +1,9 @@
 package com.example.kidic.dto;
 
-import com.example.kidic.entity.DiseaseAndAllergy;
-import com.example.kidic.entity.GrowthRecord;
-import com.example.kidic.entity.Meal;
-import com.example.kidic.entity.MedicalRecord;
 import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -19,9 +14,9 @@ public class ChildDetailsDTO {
     private Boolean gender;
     private LocalDate dateOfBirth;
     private String medicalNotes;
-    private List<MedicalRecord> medicalRecords;
-    private List<GrowthRecord> growthRecords;
-    private List<DiseaseAndAllergy> diseasesAndAllergies;
-    private List<Meal> meals;
+    private List<MedicalRecordResponseDTO> medicalRecords;
+    private List<GrowthRecordSummaryDTO> growthRecords;
+    private List<DiseaseAndAllergySummaryDTO> diseasesAndAllergies;
+    private List<MealSummaryDTO> meals;
 
 }
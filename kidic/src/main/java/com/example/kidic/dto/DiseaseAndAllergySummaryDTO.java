@@ -0,0 +1,17 @@
+package com.example.kidic.dto;
+
+import com.example.kidic.entity.DiseaseAndAllergy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiseaseAndAllergySummaryDTO {
+    private Long id;
+    private Long childId;
+    private DiseaseAndAllergy.DiseaseAllergyType type;
+    private String description;
+    private String aiResponse;
+}
@@ -0,0 +1,33 @@
+package com.example.kidic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Height and weight series of a child, sorted by date and downsampled to at most the
+ * requested number of points each. The counts are the sizes before downsampling.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrowthChartDTO {
+    private Long childId;
+    private int heightCount;
+    private int weightCount;
+    private List<Point> height;
+    private List<Point> weight;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate date;
+        private double value;
+        /** WHO percentile, null outside the reference ages */
+        private Double percentile;
+    }
+}
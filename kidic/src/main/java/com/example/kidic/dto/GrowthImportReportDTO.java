@@ -0,0 +1,31 @@
+package com.example.kidic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a growth record import. Errors name the line of the upload, counting the CSV
+ * header; at most the configured number of errors is listed.
+ */
+@Data
+@Builder
+public class GrowthImportReportDTO {
+    private Long childId;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private boolean errorsTruncated;
+    private List<RowError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
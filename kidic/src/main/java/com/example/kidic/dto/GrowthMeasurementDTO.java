@@ -0,0 +1,19 @@
+package com.example.kidic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Height and weight of one growth record, read without the free-text columns for charts
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrowthMeasurementDTO {
+    private LocalDate dateOfRecord;
+    private Double height;
+    private Double weight;
+}
@@ -0,0 +1,29 @@
+package com.example.kidic.dto;
+
+import com.example.kidic.entity.GrowthRecord;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A growth record with the child's WHO z-scores and percentiles at the time of measurement.
+ * The reference values are null when the measurement, the child's birth date or sex is
+ * missing, or the child was older than the reference covers.
+ */
+@Data
+@NoArgsConstructor
+public class GrowthRecordResponseDTO {
+    private Long id;
+    private GrowthRecord.GrowthType type;
+    private GrowthRecord.StatusType status;
+    private LocalDate dateOfRecord;
+    private Double height;
+    private Double weight;
+    private String additionalInfo;
+    private Double ageInMonths;
+    private Double heightZScore;
+    private Double heightPercentile;
+    private Double weightZScore;
+    private Double weightPercentile;
+}
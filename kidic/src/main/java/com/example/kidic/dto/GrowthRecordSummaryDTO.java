@@ -0,0 +1,22 @@
+package com.example.kidic.dto;
+
+import com.example.kidic.entity.GrowthRecord;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrowthRecordSummaryDTO {
+    private Long id;
+    private Long childId;
+    private GrowthRecord.GrowthType type;
+    private GrowthRecord.StatusType status;
+    private LocalDate dateOfRecord;
+    private Double height;
+    private Double weight;
+    private String additionalInfo;
+}
@@ -0,0 +1,34 @@
+package com.example.kidic.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Latest values, extremes and growth velocity of a child's height and weight. Velocity is
+ * measured from the last measurement at least velocityWindowMonths before the latest one,
+ * or from the first measurement when the history is shorter.
+ */
+@Data
+@Builder
+public class GrowthSummaryDTO {
+    private Long childId;
+    private long recordCount;
+    private int velocityWindowMonths;
+    private Series height;
+    private Series weight;
+
+    @Data
+    @Builder
+    public static class Series {
+        private long count;
+        private Double min;
+        private Double max;
+        private LocalDate latestDate;
+        private Double latestValue;
+        private LocalDate velocityFromDate;
+        /** Change per month, null with fewer than two measurement dates */
+        private Double velocityPerMonth;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.kidic.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Marks the caller's notifications as read: every personal notification up to {@code upToId},
+ * and/or the listed {@code ids}; broadcasts up to {@code upToBroadcastId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkNotificationsReadRequestDTO {
+    private Long upToId;
+
+    @Size(max = 500, message = "At most 500 ids can be marked at once")
+    private List<Long> ids;
+
+    private Long upToBroadcastId;
+}
@@ -0,0 +1,16 @@
+package com.example.kidic.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class MealSummaryDTO {
+    private Long id;
+    private Long childId;
+    private String title;
+    private List<String> ingredients;
+    private String recipe;
+}
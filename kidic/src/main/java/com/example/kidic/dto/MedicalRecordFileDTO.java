@@ -0,0 +1,18 @@
+package com.example.kidic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class MedicalRecordFileDTO {
+    private Long id;
+    private Long childId;
+    private String fileName;
+    private Long fileSize;
+    private String fileContentType;
+    private String fileHash;
+    private Instant fileUploadedAt;
+}
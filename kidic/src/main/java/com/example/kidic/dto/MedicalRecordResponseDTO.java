@@ -15,30 +15,42 @@ public class MedicalRecordResponseDTO {
     private String description;
     private MedicalRecord.FileType fileType;
     private String fileName;
-    private byte[] fileContent;
     private Long fileSize;
     private String fileContentType;
     private MedicalRecord.StatusType status;
     private Long childId;
     private String childName;
+    private String downloadUrl;
     
     public MedicalRecordResponseDTO() {}
     
+    /**
+     * Used by the metadata-only JPQL projections in MedicalRecordRepository
+     */
     public MedicalRecordResponseDTO(Long id, MedicalRecord.MedicalRecordType type, LocalDate dateOfRecord,
                                    String description, MedicalRecord.FileType fileType, String fileName,
-                                   byte[] fileContent, Long fileSize, String fileContentType,
+                                   Long fileSize, String fileContentType,
                                    MedicalRecord.StatusType status, Long childId, String childName) {
+        this(id, type, dateOfRecord, description, fileType, fileName, fileSize, fileContentType,
+                status, childId, childName, null);
+    }
+    
+    public MedicalRecordResponseDTO(Long id, MedicalRecord.MedicalRecordType type, LocalDate dateOfRecord,
+                                   String description, MedicalRecord.FileType fileType, String fileName,
+                                   Long fileSize, String fileContentType,
+                                   MedicalRecord.StatusType status, Long childId, String childName,
+                                   String downloadUrl) {
         this.id = id;
         this.type = type;
         this.dateOfRecord = dateOfRecord;
         this.description = description;
         this.fileType = fileType;
         this.fileName = fileName;
-        this.fileContent = fileContent;
         this.fileSize = fileSize;
         this.fileContentType = fileContentType;
         this.status = status;
         this.childId = childId;
         this.childName = childName;
+        this.downloadUrl = downloadUrl;
     }
 }
@@ -0,0 +1,22 @@
+package com.example.kidic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a parent's notification feed. Pass {@code nextCursor} back to get the
+ * following page; it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationFeedPageDTO {
+    private List<NotificationResponseDTO> items;
+    private String nextCursor;
+    private long unreadCount;
+}
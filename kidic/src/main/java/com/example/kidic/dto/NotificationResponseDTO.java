@@ -0,0 +1,23 @@
+package com.example.kidic.dto;
+
+import com.example.kidic.entity.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of a parent's notification feed: either a personal notification or a broadcast
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResponseDTO {
+    private Long id;
+    private Notification.NotificationType type;
+    private String content;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+    private boolean broadcast;
+}
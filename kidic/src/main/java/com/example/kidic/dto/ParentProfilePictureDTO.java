@@ -0,0 +1,23 @@
+package com.example.kidic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Profile picture metadata of a parent, loaded without the rest of the parent row
+ */
+@Data
+@AllArgsConstructor
+public class ParentProfilePictureDTO {
+    private Long parentId;
+    private String email;
+    private UUID familyId;
+    private String profilePictureName;
+    private String profilePictureHash;
+    private Long profilePictureSize;
+    private String profilePictureContentType;
+    private Instant profilePictureUploadedAt;
+}
@@ -20,7 +20,9 @@ public class ParentResponseDTO {
 
     private String profilePictureName;
 
-    private byte[] profilePictureContent;
+    private String profilePictureUrl;
+
+    private String profilePictureThumbnailUrl;
 
     private Long profilePictureSize;
 
@@ -0,0 +1,52 @@
+package com.example.kidic.dto;
+
+import com.example.kidic.entity.ImageVariant;
+import com.example.kidic.entity.Product;
+import com.example.kidic.service.ImageVariantService;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Catalog entry without the image, which is fetched from {@code imageUrl}, or the much
+ * smaller {@code thumbnailUrl} for list tiles
+ */
+@Data
+@NoArgsConstructor
+public class ProductSummaryDTO {
+    private Long id;
+    private String name;
+    private String link;
+    private String description;
+    private Product.ImageType imageType;
+    private Product.CategoryType category;
+    private String imageContentType;
+    private String imageUrl;
+    private String thumbnailUrl;
+
+    /**
+     * Used by the JPQL projection in ProductRepository
+     */
+    public ProductSummaryDTO(Long id, String name, String link, String description, Product.ImageType imageType,
+                             Product.CategoryType category, Long imageSize, String imageContentType,
+                             String imageHash) {
+        this.id = id;
+        this.name = name;
+        this.link = link;
+        this.description = description;
+        this.imageType = imageType;
+        this.category = category;
+        this.imageContentType = imageContentType;
+        if (imageSize != null && imageSize > 0) {
+            String base = "/api/products/" + id + "/image";
+            if (imageHash == null) {
+                // Still stored in the database, no variants yet
+                this.imageUrl = base;
+            } else {
+                // The version changes with every upload, so these URLs can be cached for good
+                String version = ImageVariantService.version(imageHash);
+                this.imageUrl = base + "?v=" + version;
+                this.thumbnailUrl = base + "?size=" + ImageVariant.Size.THUMBNAIL.name().toLowerCase() + "&v=" + version;
+            }
+        }
+    }
+}
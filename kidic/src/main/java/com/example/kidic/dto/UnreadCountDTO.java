@@ -0,0 +1,12 @@
+package com.example.kidic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountDTO {
+    private long unreadCount;
+}
@@ -0,0 +1,29 @@
+package com.example.kidic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Single-row count of all broadcast notifications, so the unread badge does not
+ * count the broadcast table on every read.
+ */
+@Entity
+@Table(name = "broadcast_counters")
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BroadcastCounter {
+
+    public static final Long ID = 1L;
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "broadcast_count", nullable = false)
+    private long broadcastCount;
+}
@@ -0,0 +1,39 @@
+package com.example.kidic.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification addressed to every parent, stored once. Whether a parent has
+ * read it is tracked in {@link BroadcastNotificationRead}.
+ */
+@Entity
+@Table(name = "broadcast_notifications", indexes = {
+        @Index(name = "idx_broadcast_notifications_feed", columnList = "created_at, id")
+})
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BroadcastNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private Notification.NotificationType type = Notification.NotificationType.GENERAL;
+
+    @NotBlank
+    @Size(max = 1000)
+    private String content;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
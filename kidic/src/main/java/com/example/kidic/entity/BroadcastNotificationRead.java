@@ -0,0 +1,39 @@
+package com.example.kidic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a broadcast notification as read by one parent; no row means unread.
+ */
+@Entity
+@Table(name = "broadcast_notification_reads",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"parent_id", "broadcast_id"}))
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BroadcastNotificationRead {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "broadcast_id", nullable = false)
+    private Long broadcastId;
+
+    @Column(name = "parent_id", nullable = false)
+    private Long parentId;
+
+    private LocalDateTime readAt = LocalDateTime.now();
+
+    public BroadcastNotificationRead(Long broadcastId, Long parentId) {
+        this.broadcastId = broadcastId;
+        this.parentId = parentId;
+    }
+}
@@ -7,7 +7,9 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "growth_records")
+@Table(name = "growth_records", indexes = {
+        @Index(name = "idx_growth_records_child_date", columnList = "child_id, date_of_record")
+})
 public class GrowthRecord {
     
     @Id
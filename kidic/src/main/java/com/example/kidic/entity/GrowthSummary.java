@@ -0,0 +1,85 @@
+package com.example.kidic.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Aggregates of a child's growth records, kept up to date by every write so that reading
+ * them is one primary key lookup. GrowthSummaryRebuildJob recomputes them from the records.
+ */
+@Entity
+@Table(name = "growth_summaries")
+@Setter
+@Getter
+@NoArgsConstructor
+public class GrowthSummary {
+
+    @Id
+    @Column(name = "child_id")
+    private Long childId;
+
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "count", column = @Column(name = "height_count", nullable = false)),
+            @AttributeOverride(name = "min", column = @Column(name = "height_min")),
+            @AttributeOverride(name = "max", column = @Column(name = "height_max")),
+            @AttributeOverride(name = "earliestDate", column = @Column(name = "height_earliest_date")),
+            @AttributeOverride(name = "earliestValue", column = @Column(name = "height_earliest_value")),
+            @AttributeOverride(name = "latestDate", column = @Column(name = "height_latest_date")),
+            @AttributeOverride(name = "latestValue", column = @Column(name = "height_latest_value")),
+            @AttributeOverride(name = "baselineDate", column = @Column(name = "height_baseline_date")),
+            @AttributeOverride(name = "baselineValue", column = @Column(name = "height_baseline_value"))
+    })
+    private Series height = new Series();
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "count", column = @Column(name = "weight_count", nullable = false)),
+            @AttributeOverride(name = "min", column = @Column(name = "weight_min")),
+            @AttributeOverride(name = "max", column = @Column(name = "weight_max")),
+            @AttributeOverride(name = "earliestDate", column = @Column(name = "weight_earliest_date")),
+            @AttributeOverride(name = "earliestValue", column = @Column(name = "weight_earliest_value")),
+            @AttributeOverride(name = "latestDate", column = @Column(name = "weight_latest_date")),
+            @AttributeOverride(name = "latestValue", column = @Column(name = "weight_latest_value")),
+            @AttributeOverride(name = "baselineDate", column = @Column(name = "weight_baseline_date")),
+            @AttributeOverride(name = "baselineValue", column = @Column(name = "weight_baseline_value"))
+    })
+    private Series weight = new Series();
+
+    public GrowthSummary(Long childId) {
+        this.childId = childId;
+    }
+
+    // A row inserted ahead of its first build has a record count of -1
+    public boolean isBuilt() {
+        return recordCount >= 0;
+    }
+
+    /**
+     * One measurement over time. Ties on the date go to the record with the higher id.
+     * The baseline is the last measurement on or before the velocity window, which starts
+     * the configured number of months before the latest one.
+     */
+    @Embeddable
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    public static class Series {
+        private long count;
+        private Double min;
+        private Double max;
+        private LocalDate earliestDate;
+        private Double earliestValue;
+        private LocalDate latestDate;
+        private Double latestValue;
+        private LocalDate baselineDate;
+        private Double baselineValue;
+    }
+}
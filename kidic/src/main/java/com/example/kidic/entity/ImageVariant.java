@@ -0,0 +1,75 @@
+package com.example.kidic.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Locale;
+
+/**
+ * A downscaled copy of an uploaded image. Keyed by the BlobStore key of the original,
+ * so products and parents sharing the same upload share the variants too.
+ */
+@Entity
+@Table(name = "image_variants",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"original_hash", "variant_size"}))
+@Setter
+@Getter
+@NoArgsConstructor
+public class ImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "original_hash", nullable = false, length = 64)
+    private String originalHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variant_size", nullable = false, length = 20)
+    private Size size;
+
+    @Column(name = "variant_hash", nullable = false, length = 64)
+    private String variantHash;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "byte_size", nullable = false)
+    private long byteSize;
+
+    private int width;
+
+    private int height;
+
+    public enum Size {
+        THUMBNAIL(128),
+        MEDIUM(512);
+
+        // Longest side in pixels
+        private final int maxDimension;
+
+        Size(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+
+        /**
+         * Parses the {@code size} request parameter; null or "original" means the uploaded image
+         */
+        public static Size fromParameter(String value) {
+            if (value == null || value.isBlank() || value.equalsIgnoreCase("original")) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown image size: " + value);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
@@ -32,8 +33,10 @@ public class MedicalRecord {
     @Column(name = "file_name")
     private String fileName;
     
-    @Column(name = "file_content", columnDefinition = "LONGBLOB")
-    private byte[] fileContent;
+    // SHA-256 key of the attachment in the BlobStore
+    @Size(max = 64)
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
     
     @Column(name = "file_size")
     private Long fileSize;
@@ -42,6 +45,10 @@ public class MedicalRecord {
     @Column(name = "file_content_type")
     private String fileContentType;
     
+    // When the current content was uploaded, served as Last-Modified
+    @Column(name = "file_uploaded_at")
+    private Instant fileUploadedAt;
+    
     @Enumerated(EnumType.STRING)
     private StatusType status;
     
@@ -112,12 +119,12 @@ public class MedicalRecord {
         this.fileName = fileName;
     }
     
-    public byte[] getFileContent() {
-        return fileContent;
+    public String getFileHash() {
+        return fileHash;
     }
     
-    public void setFileContent(byte[] fileContent) {
-        this.fileContent = fileContent;
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
     }
     
     public Long getFileSize() {
@@ -136,6 +143,15 @@ public class MedicalRecord {
         this.fileContentType = fileContentType;
     }
     
+
+    public Instant getFileUploadedAt() {
+        return fileUploadedAt;
+    }
+    
+    public void setFileUploadedAt(Instant fileUploadedAt) {
+        this.fileUploadedAt = fileUploadedAt;
+    }
+    
     public StatusType getStatus() {
         return status;
     }
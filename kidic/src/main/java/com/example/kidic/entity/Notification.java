@@ -12,7 +12,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_parent_feed", columnList = "parent_id, created_at, id"),
+        @Index(name = "idx_notifications_parent_unread", columnList = "parent_id, is_read")
+})
 @Setter
 @Getter
 @AllArgsConstructor
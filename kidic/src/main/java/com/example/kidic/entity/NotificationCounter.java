@@ -0,0 +1,32 @@
+package com.example.kidic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Per-parent counters kept in step with the notification tables, so the unread
+ * badge is a primary-key read instead of a scan.
+ */
+@Entity
+@Table(name = "notification_counters")
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationCounter {
+
+    @Id
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    // Unread personal notifications
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+
+    // Broadcast notifications this parent has read
+    @Column(name = "broadcasts_read", nullable = false)
+    private long broadcastsRead;
+}
@@ -0,0 +1,68 @@
+package com.example.kidic.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A WebSocket message written in the same transaction as the change it announces and
+ * delivered by {@link com.example.kidic.service.NotificationOutboxDispatcher} after commit.
+ * Rows are deleted once delivered.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at, id")
+})
+@Setter
+@Getter
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Kind kind;
+
+    // Family id or parent id, depending on the kind
+    private String target;
+
+    // JSON of the message sent to clients
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public OutboxMessage(Kind kind, String target, String payload) {
+        this.kind = kind;
+        this.target = target;
+        this.payload = payload;
+    }
+
+    public enum Kind {
+        FAMILY_NOTIFICATION,
+        BROADCAST_NOTIFICATION,
+        UNREAD_COUNT
+    }
+
+    public enum Status {
+        PENDING,
+        // Gave up after the maximum number of attempts
+        FAILED
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
@@ -45,8 +46,10 @@ public class Parent implements UserDetails {
     @Column(name = "profile_picture_name")
     private String profilePictureName;
     
-    @Column(name = "profile_picture_content", columnDefinition = "LONGBLOB")
-    private byte[] profilePictureContent;
+    // SHA-256 key of the picture in the BlobStore
+    @Size(max = 64)
+    @Column(name = "profile_picture_hash", length = 64)
+    private String profilePictureHash;
     
     @Column(name = "profile_picture_size")
     private Long profilePictureSize;
@@ -54,6 +57,10 @@ public class Parent implements UserDetails {
     @Size(max = 100)
     @Column(name = "profile_picture_content_type")
     private String profilePictureContentType;
+    
+    // When the current picture was uploaded, served as Last-Modified
+    @Column(name = "profile_picture_uploaded_at")
+    private Instant profilePictureUploadedAt;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "family_id", nullable = true)
@@ -137,12 +144,12 @@ public class Parent implements UserDetails {
         this.profilePictureName = profilePictureName;
     }
     
-    public byte[] getProfilePictureContent() {
-        return profilePictureContent;
+    public String getProfilePictureHash() {
+        return profilePictureHash;
     }
     
-    public void setProfilePictureContent(byte[] profilePictureContent) {
-        this.profilePictureContent = profilePictureContent;
+    public void setProfilePictureHash(String profilePictureHash) {
+        this.profilePictureHash = profilePictureHash;
     }
     
     public Long getProfilePictureSize() {
@@ -160,6 +167,14 @@ public class Parent implements UserDetails {
     public void setProfilePictureContentType(String profilePictureContentType) {
         this.profilePictureContentType = profilePictureContentType;
     }
+    
+    public Instant getProfilePictureUploadedAt() {
+        return profilePictureUploadedAt;
+    }
+    
+    public void setProfilePictureUploadedAt(Instant profilePictureUploadedAt) {
+        this.profilePictureUploadedAt = profilePictureUploadedAt;
+    }
 
     public Family getFamily() {
         return family;
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,9 +36,11 @@ public class Product {
     @Column(name = "image_name")
     private String imageName;
     
-    @Column(name = "image_content", columnDefinition = "LONGBLOB")
+    // SHA-256 key of the image in the BlobStore
+    @Size(max = 64)
+    @Column(name = "image_hash", length = 64)
     @JsonIgnore
-    private byte[] imageContent;
+    private String imageHash;
     
     @Column(name = "image_size")
     private Long imageSize;
@@ -46,6 +49,10 @@ public class Product {
     @Column(name = "image_content_type")
     private String imageContentType;
     
+    // When the current content was uploaded, served as Last-Modified
+    @Column(name = "image_uploaded_at")
+    private Instant imageUploadedAt;
+    
     @Enumerated(EnumType.STRING)
     private CategoryType category;
     
@@ -113,12 +120,12 @@ public class Product {
         this.imageName = imageName;
     }
     
-    public byte[] getImageContent() {
-        return imageContent;
+    public String getImageHash() {
+        return imageHash;
     }
     
-    public void setImageContent(byte[] imageContent) {
-        this.imageContent = imageContent;
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
     }
     
     public Long getImageSize() {
@@ -137,6 +144,15 @@ public class Product {
         this.imageContentType = imageContentType;
     }
     
+
+    public Instant getImageUploadedAt() {
+        return imageUploadedAt;
+    }
+    
+    public void setImageUploadedAt(Instant imageUploadedAt) {
+        this.imageUploadedAt = imageUploadedAt;
+    }
+    
     public CategoryType getCategory() {
         return category;
     }
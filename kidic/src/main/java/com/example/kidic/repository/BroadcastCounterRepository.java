@@ -0,0 +1,24 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.entity.BroadcastCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BroadcastCounterRepository extends JpaRepository<BroadcastCounter, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BroadcastCounter c SET c.broadcastCount = c.broadcastCount + :delta WHERE c.id = :id")
+    int addBroadcasts(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Create the counter row unless another transaction already did. No row count is returned, since
+     * MySQL reports a skipped duplicate as a changed row.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO BroadcastCounter (id, broadcastCount) VALUES (:id, :broadcastCount) ON CONFLICT DO NOTHING")
+    void insertIfAbsent(@Param("id") Long id, @Param("broadcastCount") long broadcastCount);
+}
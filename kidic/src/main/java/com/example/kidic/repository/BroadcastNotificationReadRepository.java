@@ -0,0 +1,37 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.entity.BroadcastNotificationRead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BroadcastNotificationReadRepository extends JpaRepository<BroadcastNotificationRead, Long> {
+
+    boolean existsByBroadcastIdAndParentId(Long broadcastId, Long parentId);
+
+    long countByParentId(Long parentId);
+
+    /**
+     * Insert read rows for every broadcast up to {@code upToId} the parent has not read yet
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO BroadcastNotificationRead (broadcastId, parentId, readAt) " +
+           "SELECT b.id, :parentId, :readAt FROM BroadcastNotification b WHERE b.id <= :upToId AND NOT EXISTS " +
+           "(SELECT r.id FROM BroadcastNotificationRead r WHERE r.broadcastId = b.id AND r.parentId = :parentId)")
+    int markReadUpTo(@Param("parentId") Long parentId, @Param("upToId") Long upToId,
+                     @Param("readAt") LocalDateTime readAt);
+
+    // Sees rows committed after the transaction started, unlike existsByBroadcastIdAndParentId
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM BroadcastNotificationRead r WHERE r.broadcastId = :broadcastId AND r.parentId = :parentId")
+    Optional<BroadcastNotificationRead> findForUpdate(@Param("broadcastId") Long broadcastId,
+                                                      @Param("parentId") Long parentId);
+}
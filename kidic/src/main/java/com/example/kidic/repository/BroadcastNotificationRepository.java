@@ -0,0 +1,49 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.dto.NotificationResponseDTO;
+import com.example.kidic.entity.BroadcastNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BroadcastNotificationRepository extends JpaRepository<BroadcastNotification, Long> {
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(b.id, b.type, b.content, " +
+           "CASE WHEN r.id IS NULL THEN false ELSE true END, b.createdAt, true) " +
+           "FROM BroadcastNotification b LEFT JOIN BroadcastNotificationRead r " +
+           "ON r.broadcastId = b.id AND r.parentId = :parentId " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<NotificationResponseDTO> findFeedForParent(@Param("parentId") Long parentId);
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(b.id, b.type, b.content, false, b.createdAt, true) " +
+           "FROM BroadcastNotification b WHERE NOT EXISTS " +
+           "(SELECT r.id FROM BroadcastNotificationRead r WHERE r.broadcastId = b.id AND r.parentId = :parentId) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<NotificationResponseDTO> findUnreadForParent(@Param("parentId") Long parentId);
+
+    // Keyset pages over (createdAt, id)
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(b.id, b.type, b.content, " +
+           "CASE WHEN r.id IS NULL THEN false ELSE true END, b.createdAt, true) " +
+           "FROM BroadcastNotification b LEFT JOIN BroadcastNotificationRead r " +
+           "ON r.broadcastId = b.id AND r.parentId = :parentId " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<NotificationResponseDTO> findFeedPageForParent(@Param("parentId") Long parentId, Pageable pageable);
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(b.id, b.type, b.content, " +
+           "CASE WHEN r.id IS NULL THEN false ELSE true END, b.createdAt, true) " +
+           "FROM BroadcastNotification b LEFT JOIN BroadcastNotificationRead r " +
+           "ON r.broadcastId = b.id AND r.parentId = :parentId " +
+           "WHERE b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<NotificationResponseDTO> findFeedPageForParentBefore(@Param("parentId") Long parentId,
+                                                              @Param("createdAt") LocalDateTime createdAt,
+                                                              @Param("id") Long id,
+                                                              Pageable pageable);
+}
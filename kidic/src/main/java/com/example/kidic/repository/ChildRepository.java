@@ -3,6 +3,7 @@ package com.example.kidic.repository;
 import com.example.kidic.entity.Child;
 import com.example.kidic.entity.Parent;
 import com.example.kidic.entity.Family;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -33,8 +34,14 @@ public interface ChildRepository extends JpaRepository<Child, Long> {
     
     @Query("SELECT c FROM Child c WHERE c.family.id = :familyId")
     List<Child> findByFamilyId(@Param("familyId") UUID familyId);
+
+    @Query("SELECT COUNT(c) > 0 FROM Child c WHERE c.id = :childId AND c.family.id = :familyId")
+    boolean existsByIdAndFamilyId(@Param("childId") Long childId, @Param("familyId") UUID familyId);
     
 //    long countByParent(Parent parent);
     
     long countByFamily(Family family);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id FROM Child c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -1,13 +1,16 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.dto.DiseaseAndAllergySummaryDTO;
 import com.example.kidic.entity.DiseaseAndAllergy;
 import com.example.kidic.entity.Child;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface DiseaseAndAllergyRepository extends JpaRepository<DiseaseAndAllergy, Long> {
@@ -29,4 +32,16 @@ public interface DiseaseAndAllergyRepository extends JpaRepository<DiseaseAndAll
     long countByChild(Child child);
     
     long countByChildAndType(Child child, DiseaseAndAllergy.DiseaseAllergyType type);
+
+    @Query("SELECT new com.example.kidic.dto.DiseaseAndAllergySummaryDTO(da.id, c.id, da.type, da.description, da.aiResponse) " +
+           "FROM DiseaseAndAllergy da JOIN da.child c WHERE c.family.id = :familyId ORDER BY da.id")
+    List<DiseaseAndAllergySummaryDTO> findSummariesByFamilyId(@Param("familyId") UUID familyId);
+
+    /**
+     * One page of the child's entries in id order, for reading them all in constant memory
+     */
+    @Query("SELECT new com.example.kidic.dto.DiseaseAndAllergySummaryDTO(da.id, c.id, da.type, da.description, da.aiResponse) " +
+           "FROM DiseaseAndAllergy da JOIN da.child c WHERE c.id = :childId AND da.id > :afterId ORDER BY da.id")
+    List<DiseaseAndAllergySummaryDTO> findSummariesByChildIdAfter(@Param("childId") Long childId, @Param("afterId") Long afterId,
+                                                                  Pageable pageable);
 }
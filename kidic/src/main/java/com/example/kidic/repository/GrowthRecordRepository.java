@@ -1,7 +1,10 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.dto.GrowthMeasurementDTO;
+import com.example.kidic.dto.GrowthRecordSummaryDTO;
 import com.example.kidic.entity.GrowthRecord;
 import com.example.kidic.entity.Child;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface GrowthRecordRepository extends JpaRepository<GrowthRecord, Long> {
@@ -38,4 +42,42 @@ public interface GrowthRecordRepository extends JpaRepository<GrowthRecord, Long
     long countByChildAndType(Child child, GrowthRecord.GrowthType type);
     
     long countByChildAndStatus(Child child, GrowthRecord.StatusType status);
+
+    @Query("SELECT new com.example.kidic.dto.GrowthRecordSummaryDTO(gr.id, c.id, gr.type, gr.status, gr.dateOfRecord, " +
+           "gr.height, gr.weight, gr.additionalInfo) " +
+           "FROM GrowthRecord gr JOIN gr.child c WHERE c.family.id = :familyId ORDER BY gr.dateOfRecord DESC, gr.id DESC")
+    List<GrowthRecordSummaryDTO> findSummariesByFamilyId(@Param("familyId") UUID familyId);
+
+    @Query("SELECT new com.example.kidic.dto.GrowthRecordSummaryDTO(gr.id, gr.child.id, gr.type, gr.status, gr.dateOfRecord, " +
+           "gr.height, gr.weight, gr.additionalInfo) " +
+           "FROM GrowthRecord gr WHERE gr.child.id = :childId ORDER BY gr.dateOfRecord, gr.id")
+    List<GrowthRecordSummaryDTO> findSummariesByChildId(@Param("childId") Long childId);
+
+    /**
+     * One page of the child's records in id order, for reading them all in constant memory
+     */
+    @Query("SELECT new com.example.kidic.dto.GrowthRecordSummaryDTO(gr.id, gr.child.id, gr.type, gr.status, gr.dateOfRecord, " +
+           "gr.height, gr.weight, gr.additionalInfo) " +
+           "FROM GrowthRecord gr WHERE gr.child.id = :childId AND gr.id > :afterId ORDER BY gr.id")
+    List<GrowthRecordSummaryDTO> findSummariesByChildIdAfter(@Param("childId") Long childId, @Param("afterId") Long afterId,
+                                                             Pageable pageable);
+
+    // Served by idx_growth_records_child_date without sorting
+    @Query("SELECT new com.example.kidic.dto.GrowthMeasurementDTO(gr.dateOfRecord, gr.height, gr.weight) " +
+           "FROM GrowthRecord gr WHERE gr.child.id = :childId AND (gr.height IS NOT NULL OR gr.weight IS NOT NULL) " +
+           "ORDER BY gr.dateOfRecord, gr.id")
+    List<GrowthMeasurementDTO> findMeasurementsByChildId(@Param("childId") Long childId);
+
+    @Query("SELECT new com.example.kidic.dto.GrowthMeasurementDTO(gr.dateOfRecord, gr.height, gr.weight) " +
+           "FROM GrowthRecord gr WHERE gr.child.id = :childId AND gr.height IS NOT NULL AND gr.dateOfRecord <= :date " +
+           "ORDER BY gr.dateOfRecord DESC, gr.id DESC")
+    List<GrowthMeasurementDTO> findHeightsOnOrBefore(@Param("childId") Long childId, @Param("date") LocalDate date, Pageable pageable);
+
+    @Query("SELECT new com.example.kidic.dto.GrowthMeasurementDTO(gr.dateOfRecord, gr.height, gr.weight) " +
+           "FROM GrowthRecord gr WHERE gr.child.id = :childId AND gr.weight IS NOT NULL AND gr.dateOfRecord <= :date " +
+           "ORDER BY gr.dateOfRecord DESC, gr.id DESC")
+    List<GrowthMeasurementDTO> findWeightsOnOrBefore(@Param("childId") Long childId, @Param("date") LocalDate date, Pageable pageable);
+
+    @Query("SELECT COUNT(gr) FROM GrowthRecord gr WHERE gr.child.id = :childId")
+    long countByChildId(@Param("childId") Long childId);
 }
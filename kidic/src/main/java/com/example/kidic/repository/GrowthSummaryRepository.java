@@ -0,0 +1,35 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.entity.GrowthSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GrowthSummaryRepository extends JpaRepository<GrowthSummary, Long> {
+
+    // Serializes writes to the records of one child
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM GrowthSummary s WHERE s.childId = :childId")
+    Optional<GrowthSummary> findForUpdate(@Param("childId") Long childId);
+
+    /**
+     * Create a row marked as not built unless one exists, so concurrent first writers wait for one
+     * row instead of both inserting it. No row count is returned, since MySQL reports a skipped
+     * duplicate as a changed row; callers check {@link GrowthSummary#isBuilt()} instead.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO GrowthSummary (childId, recordCount, height.count, weight.count) " +
+           "VALUES (:childId, -1, 0, 0) ON CONFLICT DO NOTHING")
+    void insertIfAbsent(@Param("childId") Long childId);
+
+    @Modifying
+    @Query("DELETE FROM GrowthSummary s WHERE s.childId = :childId")
+    int deleteByChildId(@Param("childId") Long childId);
+}
@@ -0,0 +1,16 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.entity.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+
+    Optional<ImageVariant> findByOriginalHashAndSize(String originalHash, ImageVariant.Size size);
+
+    List<ImageVariant> findByOriginalHash(String originalHash);
+}
@@ -2,12 +2,14 @@ package com.example.kidic.repository;
 
 import com.example.kidic.entity.Meal;
 import com.example.kidic.entity.Child;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface MealRepository extends JpaRepository<Meal, Long> {
@@ -27,4 +29,19 @@ public interface MealRepository extends JpaRepository<Meal, Long> {
     List<Meal> findByIngredientContaining(@Param("ingredient") String ingredient);
     
     long countByChild(Child child);
+
+    /**
+     * Meals of the family's children with their ingredients fetched in the same query
+     */
+    @Query("SELECT DISTINCT m FROM Meal m LEFT JOIN FETCH m.ingredients WHERE m.child.family.id = :familyId ORDER BY m.id")
+    List<Meal> findWithIngredientsByFamilyId(@Param("familyId") UUID familyId);
+
+    /**
+     * One page of the child's meal ids in id order, for reading them all in constant memory
+     */
+    @Query("SELECT m.id FROM Meal m WHERE m.child.id = :childId AND m.id > :afterId ORDER BY m.id")
+    List<Long> findIdsByChildIdAfter(@Param("childId") Long childId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT m FROM Meal m LEFT JOIN FETCH m.ingredients WHERE m.id IN :ids ORDER BY m.id")
+    List<Meal> findWithIngredientsByIdIn(@Param("ids") List<Long> ids);
 }
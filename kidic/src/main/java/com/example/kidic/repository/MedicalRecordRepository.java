@@ -1,7 +1,10 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.dto.MedicalRecordFileDTO;
+import com.example.kidic.dto.MedicalRecordResponseDTO;
 import com.example.kidic.entity.MedicalRecord;
 import com.example.kidic.entity.Child;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,6 +12,8 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Long> {
@@ -30,7 +35,46 @@ public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Lo
     @Query("SELECT mr FROM MedicalRecord mr WHERE mr.child.id = :childId AND mr.type = :type")
     List<MedicalRecord> findByChildIdAndType(@Param("childId") Long childId, @Param("type") MedicalRecord.MedicalRecordType type);
     
+    @Query("SELECT new com.example.kidic.dto.MedicalRecordResponseDTO(mr.id, mr.type, mr.dateOfRecord, mr.description, " +
+           "mr.fileType, mr.fileName, mr.fileSize, mr.fileContentType, mr.status, c.id, c.name) " +
+           "FROM MedicalRecord mr JOIN mr.child c WHERE c.id = :childId ORDER BY mr.dateOfRecord DESC, mr.id DESC")
+    List<MedicalRecordResponseDTO> findSummariesByChildId(@Param("childId") Long childId);
+    
+    @Query("SELECT new com.example.kidic.dto.MedicalRecordResponseDTO(mr.id, mr.type, mr.dateOfRecord, mr.description, " +
+           "mr.fileType, mr.fileName, mr.fileSize, mr.fileContentType, mr.status, c.id, c.name) " +
+           "FROM MedicalRecord mr JOIN mr.child c WHERE mr.id = :id")
+    Optional<MedicalRecordResponseDTO> findSummaryById(@Param("id") Long id);
+    
+    @Query("SELECT new com.example.kidic.dto.MedicalRecordFileDTO(mr.id, mr.child.id, mr.fileName, mr.fileSize, mr.fileContentType, mr.fileHash, " +
+           "mr.fileUploadedAt) FROM MedicalRecord mr WHERE mr.id = :id")
+    Optional<MedicalRecordFileDTO> findFileById(@Param("id") Long id);
+
+    /**
+     * One page of the child's record metadata in id order, for reading them all in constant memory
+     */
+    @Query("SELECT new com.example.kidic.dto.MedicalRecordResponseDTO(mr.id, mr.type, mr.dateOfRecord, mr.description, " +
+           "mr.fileType, mr.fileName, mr.fileSize, mr.fileContentType, mr.status, c.id, c.name) " +
+           "FROM MedicalRecord mr JOIN mr.child c WHERE c.id = :childId AND mr.id > :afterId ORDER BY mr.id")
+    List<MedicalRecordResponseDTO> findSummariesByChildIdAfter(@Param("childId") Long childId, @Param("afterId") Long afterId,
+                                                               Pageable pageable);
+
+    /**
+     * One page of the child's attachments in id order, without their content
+     */
+    @Query("SELECT new com.example.kidic.dto.MedicalRecordFileDTO(mr.id, mr.child.id, mr.fileName, mr.fileSize, mr.fileContentType, mr.fileHash, " +
+           "mr.fileUploadedAt) FROM MedicalRecord mr WHERE mr.child.id = :childId AND mr.id > :afterId AND mr.fileSize > 0 ORDER BY mr.id")
+    List<MedicalRecordFileDTO> findFilesByChildIdAfter(@Param("childId") Long childId, @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+    
     long countByChild(Child child);
     
     long countByChildAndType(Child child, MedicalRecord.MedicalRecordType type);
+
+    /**
+     * Metadata of every record of the family's children in one query, for the family dashboard
+     */
+    @Query("SELECT new com.example.kidic.dto.MedicalRecordResponseDTO(mr.id, mr.type, mr.dateOfRecord, mr.description, " +
+           "mr.fileType, mr.fileName, mr.fileSize, mr.fileContentType, mr.status, c.id, c.name) " +
+           "FROM MedicalRecord mr JOIN mr.child c WHERE c.family.id = :familyId ORDER BY mr.dateOfRecord DESC, mr.id DESC")
+    List<MedicalRecordResponseDTO> findSummariesByFamilyId(@Param("familyId") UUID familyId);
 }
@@ -0,0 +1,39 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.entity.NotificationCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    // Serializes read changes of one parent
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM NotificationCounter c WHERE c.parentId = :parentId")
+    Optional<NotificationCounter> findForUpdate(@Param("parentId") Long parentId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE NotificationCounter c SET c.unreadCount = c.unreadCount + :delta WHERE c.parentId = :parentId")
+    int addUnread(@Param("parentId") Long parentId, @Param("delta") long delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE NotificationCounter c SET c.broadcastsRead = c.broadcastsRead + :delta WHERE c.parentId = :parentId")
+    int addBroadcastsRead(@Param("parentId") Long parentId, @Param("delta") long delta);
+
+    /**
+     * Create the parent's counter row unless another transaction already did. No row count is returned, since
+     * MySQL reports a skipped duplicate as a changed row.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO NotificationCounter (parentId, unreadCount, broadcastsRead) " +
+           "VALUES (:parentId, :unreadCount, :broadcastsRead) ON CONFLICT DO NOTHING")
+    void insertIfAbsent(@Param("parentId") Long parentId, @Param("unreadCount") long unreadCount,
+                        @Param("broadcastsRead") long broadcastsRead);
+}
@@ -1,12 +1,17 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.dto.NotificationResponseDTO;
 import com.example.kidic.entity.Notification;
 import com.example.kidic.entity.Family;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,4 +29,39 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     @Query("SELECT n FROM Notification n WHERE n.parentId = :userId AND n.isRead = :isRead")
     List<Notification> findByUserIdAndIsRead(Long userId, boolean isRead);
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(n.id, n.type, n.content, n.isRead, n.createdAt, false) " +
+           "FROM Notification n WHERE n.parentId = :parentId ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationResponseDTO> findFeedByParentId(@Param("parentId") Long parentId);
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(n.id, n.type, n.content, n.isRead, n.createdAt, false) " +
+           "FROM Notification n WHERE n.parentId = :parentId AND n.isRead = false ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationResponseDTO> findUnreadFeedByParentId(@Param("parentId") Long parentId);
+
+    // Keyset pages over (createdAt, id), served by the parent feed index
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(n.id, n.type, n.content, n.isRead, n.createdAt, false) " +
+           "FROM Notification n WHERE n.parentId = :parentId ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationResponseDTO> findFeedPage(@Param("parentId") Long parentId, Pageable pageable);
+
+    @Query("SELECT new com.example.kidic.dto.NotificationResponseDTO(n.id, n.type, n.content, n.isRead, n.createdAt, false) " +
+           "FROM Notification n WHERE n.parentId = :parentId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationResponseDTO> findFeedPageBefore(@Param("parentId") Long parentId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    long countByParentIdAndIsReadFalse(Long parentId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.parentId = :parentId AND n.id <= :upToId AND n.isRead = false")
+    int markReadUpTo(@Param("parentId") Long parentId, @Param("upToId") Long upToId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.parentId = :parentId AND n.id IN :ids AND n.isRead = false")
+    int markReadByIds(@Param("parentId") Long parentId, @Param("ids") Collection<Long> ids);
 }
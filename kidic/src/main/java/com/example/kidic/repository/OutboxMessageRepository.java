@@ -0,0 +1,32 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.entity.OutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Pending messages that are due, oldest first. The rows stay locked until the transaction ends
+     * and rows locked by another node are skipped (lock timeout -2 is SKIP LOCKED where the database
+     * supports it), so each message is handed to one dispatcher.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM OutboxMessage m WHERE m.status = com.example.kidic.entity.OutboxMessage.Status.PENDING " +
+            "AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<OutboxMessage> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(OutboxMessage.Status status);
+}
@@ -1,5 +1,7 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.config.ParentPrincipal;
+import com.example.kidic.dto.ParentProfilePictureDTO;
 import com.example.kidic.entity.Parent;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface ParentRepository extends JpaRepository<Parent, Long> {
@@ -23,4 +26,16 @@ public interface ParentRepository extends JpaRepository<Parent, Long> {
 //    List<Parent> findByChildId(@Param("childId") Long childId);
     
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.example.kidic.config.ParentPrincipal(p.id, p.email, f.id) " +
+           "FROM Parent p LEFT JOIN p.family f WHERE p.email = :email")
+    Optional<ParentPrincipal> findPrincipalByEmail(@Param("email") String email);
+
+    @Query("SELECT new com.example.kidic.dto.ParentProfilePictureDTO(p.id, p.email, f.id, p.profilePictureName, " +
+           "p.profilePictureHash, p.profilePictureSize, p.profilePictureContentType, p.profilePictureUploadedAt) " +
+           "FROM Parent p LEFT JOIN p.family f WHERE p.id = :id")
+    Optional<ParentProfilePictureDTO> findProfilePictureById(@Param("id") Long id);
+
+    @Query("SELECT p FROM Parent p WHERE p.family.id = :familyId ORDER BY p.id")
+    List<Parent> findByFamilyId(@Param("familyId") UUID familyId);
 }
@@ -1,5 +1,6 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.dto.ProductSummaryDTO;
 import com.example.kidic.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -22,4 +23,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     @Query("SELECT p FROM Product p WHERE p.description LIKE %:description%")
     List<Product> findByDescriptionContaining(@Param("description") String description);
+
+    @Query("SELECT new com.example.kidic.dto.ProductSummaryDTO(p.id, p.name, p.link, p.description, p.imageType, " +
+           "p.category, p.imageSize, p.imageContentType, p.imageHash) FROM Product p ORDER BY p.id")
+    List<ProductSummaryDTO> findCatalog();
 }
@@ -0,0 +1,106 @@
+package com.example.kidic.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves attachments still stored in the legacy LONGBLOB columns into the {@link BlobStore},
+ * one batch of rows at a time, and clears the column once the content hash is recorded.
+ * Tables created after the move never have the legacy columns, in which case the job does nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "kidic.blob-store.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class BlobMigrationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobMigrationJob.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseBlobReader databaseBlobReader;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${kidic.blob-store.migration.batch-size:50}")
+    private int batchSize;
+
+    private final Map<DatabaseBlobReader.BlobColumn, Boolean> legacyColumns = new ConcurrentHashMap<>();
+
+    @Scheduled(initialDelayString = "${kidic.blob-store.migration.initial-delay-ms:30000}",
+            fixedDelayString = "${kidic.blob-store.migration.interval-ms:600000}")
+    public void migrate() {
+        for (DatabaseBlobReader.BlobColumn column : DatabaseBlobReader.BlobColumn.values()) {
+            if (hasLegacyColumn(column)) {
+                migrate(column);
+            }
+        }
+    }
+
+    /**
+     * Migrate every remaining row of one column and return the number of rows moved
+     */
+    public int migrate(DatabaseBlobReader.BlobColumn column) {
+        String select = "SELECT id FROM " + column.getTable()
+                + " WHERE id > ? AND " + column.getHashColumn() + " IS NULL AND " + column.getColumn() + " IS NOT NULL"
+                + " ORDER BY id LIMIT ?";
+        String update = "UPDATE " + column.getTable()
+                + " SET " + column.getHashColumn() + " = ?, " + column.getColumn() + " = NULL"
+                + " WHERE id = ? AND " + column.getHashColumn() + " IS NULL";
+
+        int migrated = 0;
+        long lastId = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(select, Long.class, lastId, batchSize);
+            for (Long id : ids) {
+                try (InputStream content = databaseBlobReader.openStream(column, id)) {
+                    String key = blobStore.put(content);
+                    migrated += jdbcTemplate.update(update, key, id);
+                } catch (IOException e) {
+                    // Left in place and retried on the next run
+                    log.warn("Could not migrate {}.{} for id {}", column.getTable(), column.getColumn(), id, e);
+                }
+                lastId = id;
+            }
+        } while (ids.size() == batchSize);
+
+        if (migrated > 0) {
+            log.info("Migrated {} blobs out of {}.{}", migrated, column.getTable(), column.getColumn());
+        }
+        return migrated;
+    }
+
+    private boolean hasLegacyColumn(DatabaseBlobReader.BlobColumn column) {
+        return legacyColumns.computeIfAbsent(column, c -> Boolean.TRUE.equals(
+                jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                    DatabaseMetaData metaData = connection.getMetaData();
+                    for (String[] names : new String[][]{
+                            {c.getTable(), c.getColumn()},
+                            {c.getTable().toUpperCase(), c.getColumn().toUpperCase()}}) {
+                        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, names[0], names[1])) {
+                            if (columns.next()) {
+                                return true;
+                            }
+                        }
+                    }
+                    return false;
+                })));
+    }
+}
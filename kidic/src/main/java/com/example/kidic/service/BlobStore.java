@@ -0,0 +1,31 @@
+package com.example.kidic.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Content-addressed storage for uploaded files. Blobs are keyed by the hex SHA-256 of their content,
+ * so storing the same bytes twice (e.g. the same scan uploaded by both parents) keeps a single copy.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the content read from the stream and return its SHA-256 key
+     */
+    String put(InputStream content) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * Size of the stored blob in bytes
+     */
+    long size(String key) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Copy {@code length} bytes starting at {@code offset} (0-based) of the blob to the output stream
+     */
+    void copyRange(String key, long offset, long length, OutputStream out) throws IOException;
+}
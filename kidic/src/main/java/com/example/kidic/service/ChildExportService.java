@@ -0,0 +1,246 @@
+package com.example.kidic.service;
+
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.config.JwtService;
+import com.example.kidic.dto.ChildResponseDTO;
+import com.example.kidic.dto.DiseaseAndAllergySummaryDTO;
+import com.example.kidic.dto.GrowthRecordSummaryDTO;
+import com.example.kidic.dto.MealSummaryDTO;
+import com.example.kidic.dto.MedicalRecordFileDTO;
+import com.example.kidic.dto.MedicalRecordResponseDTO;
+import com.example.kidic.entity.Child;
+import com.example.kidic.entity.Meal;
+import com.example.kidic.repository.ChildRepository;
+import com.example.kidic.repository.DiseaseAndAllergyRepository;
+import com.example.kidic.repository.GrowthRecordRepository;
+import com.example.kidic.repository.MealRepository;
+import com.example.kidic.repository.MedicalRecordRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes everything stored about a child as one ZIP archive: the child, growth records as
+ * CSV (in the format the growth import accepts), meals, diseases and allergies and medical
+ * record metadata as JSON, and the medical record attachments. Rows are read one keyset page
+ * at a time and written straight into the archive, so memory use does not grow with the
+ * number of records or the size of the attachments.
+ */
+@Service
+public class ChildExportService {
+
+    static final String GROWTH_RECORDS_CSV_HEADER = "dateOfRecord,height,weight,type,status,additionalInfo";
+
+    @Autowired
+    private ChildRepository childRepository;
+
+    @Autowired
+    private GrowthRecordRepository growthRecordRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private DiseaseAndAllergyRepository diseaseAndAllergyRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private MedicalRecordService medicalRecordService;
+
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${kidic.export.page-size:500}")
+    private int pageSize;
+
+    private interface PageReader<T> {
+        List<T> read(Long afterId, Pageable page);
+    }
+
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+
+    /**
+     * Checks access before the response starts, since the archive is written on another thread
+     */
+    public ChildResponseDTO getExportableChild(Long childId, String token) {
+        UUID familyId = jwtService.extractFamilyId(token);
+        childAccessGuard.requireAccess(familyId, childId);
+        Child child = childRepository.findById(childId)
+                .orElseThrow(() -> new IllegalArgumentException("Child not found"));
+        return ChildService.toResponseDTO(child);
+    }
+
+    public static String archiveName(ChildResponseDTO child) {
+        return "child-" + child.getId() + "-export.zip";
+    }
+
+    public void writeArchive(ChildResponseDTO child, OutputStream out) throws IOException {
+        Long childId = child.getId();
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+
+        zip.putNextEntry(new ZipEntry("child.json"));
+        try (JsonGenerator generator = jsonGenerator(zip)) {
+            objectMapper.writeValue(generator, child);
+        }
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry("growth-records.csv"));
+        Writer csv = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        csv.write(GROWTH_RECORDS_CSV_HEADER);
+        csv.write('\n');
+        forEachRow((afterId, page) -> growthRecordRepository.findSummariesByChildIdAfter(childId, afterId, page),
+                GrowthRecordSummaryDTO::getId, record -> {
+                    csv.write(String.valueOf(record.getDateOfRecord()));
+                    csv.write(',');
+                    csv.write(record.getHeight() == null ? "" : record.getHeight().toString());
+                    csv.write(',');
+                    csv.write(record.getWeight() == null ? "" : record.getWeight().toString());
+                    csv.write(',');
+                    csv.write(record.getType() == null ? "" : record.getType().name());
+                    csv.write(',');
+                    csv.write(record.getStatus() == null ? "" : record.getStatus().name());
+                    csv.write(',');
+                    csv.write(csvField(record.getAdditionalInfo()));
+                    csv.write('\n');
+                });
+        csv.flush();
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry("meals.json"));
+        writeMeals(zip, childId);
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry("diseases-and-allergies.json"));
+        try (JsonGenerator generator = jsonGenerator(zip)) {
+            generator.writeStartArray();
+            forEachRow((afterId, page) -> diseaseAndAllergyRepository.findSummariesByChildIdAfter(childId, afterId, page),
+                    DiseaseAndAllergySummaryDTO::getId, entry -> objectMapper.writeValue(generator, entry));
+            generator.writeEndArray();
+        }
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry("medical-records.json"));
+        try (JsonGenerator generator = jsonGenerator(zip)) {
+            generator.writeStartArray();
+            forEachRow((afterId, page) -> medicalRecordRepository.findSummariesByChildIdAfter(childId, afterId, page),
+                    MedicalRecordResponseDTO::getId, record -> {
+                        ObjectNode node = objectMapper.valueToTree(record);
+                        node.remove("downloadUrl");
+                        node.put("attachment", record.getFileSize() == null || record.getFileSize() == 0
+                                ? null : attachmentPath(record.getId(), record.getFileName()));
+                        objectMapper.writeValue(generator, node);
+                    });
+            generator.writeEndArray();
+        }
+        zip.closeEntry();
+
+        // Attachments are mostly images, PDFs and media that do not compress further
+        zip.setLevel(Deflater.BEST_SPEED);
+        forEachRow((afterId, page) -> medicalRecordRepository.findFilesByChildIdAfter(childId, afterId, page),
+                MedicalRecordFileDTO::getId, file -> {
+                    zip.putNextEntry(new ZipEntry(attachmentPath(file.getId(), file.getFileName())));
+                    medicalRecordService.writeMedicalRecordFile(file, 0, file.getFileSize(), zip);
+                    zip.closeEntry();
+                });
+
+        zip.finish();
+        zip.flush();
+    }
+
+    private <T> void forEachRow(PageReader<T> reader, ToLongFunction<T> idOf, RowWriter<T> writer) throws IOException {
+        Pageable page = PageRequest.of(0, pageSize);
+        long lastId = 0;
+        List<T> rows;
+        do {
+            rows = reader.read(lastId, page);
+            for (T row : rows) {
+                writer.write(row);
+                lastId = idOf.applyAsLong(row);
+            }
+        } while (rows.size() == pageSize);
+    }
+
+    // Ids are paged first, because a fetch join of a collection cannot be limited in the query
+    private void writeMeals(OutputStream out, Long childId) throws IOException {
+        Pageable page = PageRequest.of(0, pageSize);
+        try (JsonGenerator generator = jsonGenerator(out)) {
+            generator.writeStartArray();
+            long lastId = 0;
+            List<Long> pageIds;
+            do {
+                pageIds = mealRepository.findIdsByChildIdAfter(childId, lastId, page);
+                if (!pageIds.isEmpty()) {
+                    for (Meal meal : mealRepository.findWithIngredientsByIdIn(pageIds)) {
+                        objectMapper.writeValue(generator, toMealSummaryDTO(meal, childId));
+                    }
+                    lastId = pageIds.get(pageIds.size() - 1);
+                }
+            } while (pageIds.size() == pageSize);
+            generator.writeEndArray();
+        }
+    }
+
+    // Closing the generator must not close the archive
+    private JsonGenerator jsonGenerator(OutputStream out) throws IOException {
+        return objectMapper.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static MealSummaryDTO toMealSummaryDTO(Meal meal, Long childId) {
+        return MealSummaryDTO.builder()
+                .id(meal.getId())
+                .childId(childId)
+                .title(meal.getTitle())
+                .ingredients(List.copyOf(meal.getIngredients()))
+                .recipe(meal.getRecipe())
+                .build();
+    }
+
+    static String attachmentPath(Long recordId, String fileName) {
+        String safeName = fileName == null || fileName.isBlank()
+                ? "file"
+                : fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (safeName.length() > 100) {
+            safeName = safeName.substring(safeName.length() - 100);
+        }
+        return "attachments/" + recordId + "-" + safeName;
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        // The import reads one row per line, so line breaks become spaces
+        return "\"" + value.replace("\"", "\"\"").replace("\r\n", " ").replace('\n', ' ').replace('\r', ' ') + "\"";
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.kidic.service;
 
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.config.FamilyCache;
 import com.example.kidic.config.JwtService;
 import com.example.kidic.dto.ChildRequestDTO;
 import com.example.kidic.dto.ChildResponseDTO;
@@ -27,6 +29,12 @@ public class ChildService {
     private FamilyService familyService;
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+    @Autowired
+    private FamilyCache familyCache;
+    @Autowired
+    private GrowthSummaryService growthSummaryService;
 
     @Transactional
     public ChildResponseDTO create(ChildRequestDTO request, String token) {
@@ -42,6 +50,7 @@ public class ChildService {
         Child child = toEntity(request,family);
 
         childRepository.save(child);
+        familyCache.evict(familyId);
         notificationService.createNotification(familyId,
                 "new child joined the family", Notification.NotificationType.GENERAL);
         return toResponseDTO(child);
@@ -71,27 +80,23 @@ public class ChildService {
     public String delete(Long childId, String token) {
         UUID familyId = jwtService.extractFamilyId(token);
 
+        childAccessGuard.requireAccess(familyId, childId);
         Child child = childRepository.findById(childId)
                 .orElseThrow(() -> new IllegalArgumentException("Child not found"));
 
-        if (!familyService.isChildMember(familyId, child)) {
-            throw new IllegalArgumentException("Child does not belong to any family");
-        }
-
         familyService.deleteChild(familyId,child);
         childRepository.delete(child);
+        growthSummaryService.childDeleted(childId);
+        familyCache.evict(familyId);
         return "Child deleted";
     }
 
     public ChildResponseDTO update(Long childId, ChildUpdateRequestDTO requestDTO, String token) {
         System.out.println(requestDTO);
         UUID familyId = jwtService.extractFamilyId(token);
+        childAccessGuard.requireAccess(familyId, childId);
         Child child = childRepository.findById(childId)
                 .orElseThrow(() -> new IllegalArgumentException("Child not found"));
-
-        if (!familyService.isChildMember(familyId, child)) {
-            throw new IllegalArgumentException("Child does not belong to any family");
-        }
         if (requestDTO.getName() != null) {
             child.setName(requestDTO.getName());
         }
@@ -103,16 +108,15 @@ public class ChildService {
             child.setMedicalNotes(requestDTO.getMedicalNotes());
         }
         childRepository.save(child);
+        familyCache.evict(familyId);
         return toResponseDTO(child);
     }
 
     public ChildResponseDTO getChild(Long id, String token) {
         UUID familyId = jwtService.extractFamilyId(token);
+        childAccessGuard.requireAccess(familyId, id);
         Child child = childRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Child not found"));
-        if (!familyService.isChildMember(familyId, child)) {
-            throw new IllegalArgumentException("Child does not belong to this family");
-        }
         return toResponseDTO(child);
     }
 }
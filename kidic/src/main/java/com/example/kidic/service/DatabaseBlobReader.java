@@ -0,0 +1,132 @@
+package com.example.kidic.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Reads blob columns in fixed-size chunks so an attachment is never held in memory as a whole.
+ * Each chunk is a separate {@code SUBSTRING} query, so no connection is held open while the
+ * client is slowly consuming the response.
+ * Only used for rows written before attachments moved to the {@link BlobStore}.
+ */
+@Service
+public class DatabaseBlobReader {
+
+    public static final int CHUNK_SIZE = 64 * 1024; // 64KB
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Copy {@code length} bytes starting at {@code offset} (0-based) of the blob to the output stream
+     */
+    public void copyRange(BlobColumn column, Long id, long offset, long length, OutputStream out) throws IOException {
+        long position = offset;
+        long remaining = length;
+        while (remaining > 0) {
+            int chunkLength = (int) Math.min(CHUNK_SIZE, remaining);
+            byte[] chunk = readChunk(column, id, position, chunkLength);
+            if (chunk == null || chunk.length == 0) {
+                throw new IOException("Unexpected end of " + column.getTable() + "." + column.getColumn() + " for id " + id);
+            }
+            out.write(chunk);
+            position += chunk.length;
+            remaining -= chunk.length;
+        }
+        out.flush();
+    }
+
+    /**
+     * Open the whole blob as a stream that fetches one chunk at a time
+     */
+    public InputStream openStream(BlobColumn column, Long id) {
+        return new InputStream() {
+            private byte[] chunk = new byte[0];
+            private int index;
+            private long position;
+            private boolean exhausted;
+
+            @Override
+            public int read() throws IOException {
+                if (!fill()) {
+                    return -1;
+                }
+                return chunk[index++] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+                int count = Math.min(length, chunk.length - index);
+                System.arraycopy(chunk, index, buffer, offset, count);
+                index += count;
+                return count;
+            }
+
+            private boolean fill() {
+                if (index < chunk.length) {
+                    return true;
+                }
+                if (exhausted) {
+                    return false;
+                }
+                byte[] next = readChunk(column, id, position, CHUNK_SIZE);
+                if (next == null || next.length == 0) {
+                    exhausted = true;
+                    return false;
+                }
+                exhausted = next.length < CHUNK_SIZE;
+                chunk = next;
+                index = 0;
+                position += next.length;
+                return true;
+            }
+        };
+    }
+
+    private byte[] readChunk(BlobColumn column, Long id, long position, int length) {
+        String sql = "SELECT SUBSTRING(" + column.getColumn() + ", ?, ?) FROM " + column.getTable() + " WHERE id = ?";
+        return jdbcTemplate.queryForObject(sql, byte[].class, position + 1, length, id);
+    }
+
+    /**
+     * Legacy blob columns and the hash columns that replace them; names never come from user input
+     */
+    public enum BlobColumn {
+        MEDICAL_RECORD_FILE("medical_records", "file_content", "file_hash"),
+        PRODUCT_IMAGE("products", "image_content", "image_hash"),
+        PARENT_PROFILE_PICTURE("parents", "profile_picture_content", "profile_picture_hash");
+
+        private final String table;
+        private final String column;
+        private final String hashColumn;
+
+        BlobColumn(String table, String column, String hashColumn) {
+            this.table = table;
+            this.column = column;
+            this.hashColumn = hashColumn;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public String getHashColumn() {
+            return hashColumn;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.kidic.service;
+
+import com.example.kidic.dto.ChildDetailsDTO;
+import com.example.kidic.dto.DiseaseAndAllergySummaryDTO;
+import com.example.kidic.dto.GrowthRecordSummaryDTO;
+import com.example.kidic.dto.MealSummaryDTO;
+import com.example.kidic.dto.MedicalRecordResponseDTO;
+import com.example.kidic.dto.ParentDetailsDTO;
+import com.example.kidic.entity.Child;
+import com.example.kidic.entity.Meal;
+import com.example.kidic.entity.Parent;
+import com.example.kidic.repository.ChildRepository;
+import com.example.kidic.repository.DiseaseAndAllergyRepository;
+import com.example.kidic.repository.GrowthRecordRepository;
+import com.example.kidic.repository.MealRepository;
+import com.example.kidic.repository.MedicalRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the parent's dashboard (their children with every record) with one query per
+ * record type for the whole family, so the query count does not grow with the number
+ * of children, records or meal ingredients.
+ */
+@Service
+public class FamilyDashboardService {
+    @Autowired
+    private ChildRepository childRepository;
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+    @Autowired
+    private GrowthRecordRepository growthRecordRepository;
+    @Autowired
+    private DiseaseAndAllergyRepository diseaseAndAllergyRepository;
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Transactional(readOnly = true)
+    public ParentDetailsDTO getDetails(Parent parent) {
+        // The id of the lazy family proxy is known without loading it
+        UUID familyId = parent.getFamily().getId();
+        List<Child> children = childRepository.findByFamilyId(familyId);
+
+        List<ChildDetailsDTO> childrenDetails = new ArrayList<>(children.size());
+        if (!children.isEmpty()) {
+            Map<Long, List<MedicalRecordResponseDTO>> medicalRecords = byChild(
+                    medicalRecordRepository.findSummariesByFamilyId(familyId), MedicalRecordResponseDTO::getChildId);
+            medicalRecords.values().forEach(records -> records.forEach(MedicalRecordService::setDownloadUrl));
+            Map<Long, List<GrowthRecordSummaryDTO>> growthRecords = byChild(
+                    growthRecordRepository.findSummariesByFamilyId(familyId), GrowthRecordSummaryDTO::getChildId);
+            Map<Long, List<DiseaseAndAllergySummaryDTO>> diseasesAndAllergies = byChild(
+                    diseaseAndAllergyRepository.findSummariesByFamilyId(familyId), DiseaseAndAllergySummaryDTO::getChildId);
+            Map<Long, List<MealSummaryDTO>> meals = byChild(
+                    mealRepository.findWithIngredientsByFamilyId(familyId).stream()
+                            .map(FamilyDashboardService::toMealSummaryDTO)
+                            .toList(),
+                    MealSummaryDTO::getChildId);
+
+            for (Child child : children) {
+                childrenDetails.add(ChildDetailsDTO.builder()
+                        .id(child.getId())
+                        .name(child.getName())
+                        .gender(child.getGender())
+                        .dateOfBirth(child.getDateOfBirth())
+                        .medicalNotes(child.getMedicalNotes())
+                        .medicalRecords(medicalRecords.getOrDefault(child.getId(), List.of()))
+                        .growthRecords(growthRecords.getOrDefault(child.getId(), List.of()))
+                        .diseasesAndAllergies(diseasesAndAllergies.getOrDefault(child.getId(), List.of()))
+                        .meals(meals.getOrDefault(child.getId(), List.of()))
+                        .build());
+            }
+        }
+
+        return ParentDetailsDTO.builder()
+                .id(parent.getId())
+                .name(parent.getName())
+                .phone(parent.getPhone())
+                .email(parent.getEmail())
+                .gender(parent.getGender())
+                .familyId(familyId)
+                .children(childrenDetails)
+                .build();
+    }
+
+    private static MealSummaryDTO toMealSummaryDTO(Meal meal) {
+        return MealSummaryDTO.builder()
+                .id(meal.getId())
+                .childId(meal.getChild().getId())
+                .title(meal.getTitle())
+                .ingredients(new ArrayList<>(meal.getIngredients()))
+                .recipe(meal.getRecipe())
+                .build();
+    }
+
+    // Keeps the query order within each child
+    private static <T> Map<Long, List<T>> byChild(List<T> rows, Function<T, Long> childId) {
+        return rows.stream().collect(Collectors.groupingBy(childId));
+    }
+}
@@ -1,18 +1,21 @@
 package com.example.kidic.service;
 
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.config.FamilyCache;
 import com.example.kidic.config.JwtService;
+import com.example.kidic.config.ParentPrincipalCache;
 import com.example.kidic.dto.ChildResponseDTO;
 import com.example.kidic.dto.FamilyResponseDTO;
 import com.example.kidic.dto.ParentResponseDTO;
 import com.example.kidic.entity.Child;
 import com.example.kidic.entity.Family;
 import com.example.kidic.entity.Parent;
+import com.example.kidic.repository.ChildRepository;
 import com.example.kidic.repository.FamilyRepository;
 import com.example.kidic.repository.ParentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +29,14 @@ public class FamilyService {
     private JwtService jwtService;
     @Autowired
     private ParentService parentService;
+    @Autowired
+    private ParentPrincipalCache parentPrincipalCache;
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+    @Autowired
+    private FamilyCache familyCache;
+    @Autowired
+    private ChildRepository childRepository;
 
 
     public Family createFamily() {
@@ -45,6 +56,8 @@ public class FamilyService {
 
         parentRepository.save(parent);
         familyRepository.save(family);
+        parentPrincipalCache.evict(parent.getEmail());
+        familyCache.evict(family.getId());
         System.out.println("addParentToFamily");
     }
 
@@ -61,59 +74,40 @@ public class FamilyService {
     }
 
     public boolean isChildMember(UUID familyId, Child child) {
-        Family family = familyRepository.findById(familyId)
-                .orElseThrow(() -> new IllegalArgumentException("Family not found"));
-        return family.getChildren().contains(child);
+        return childAccessGuard.isMember(familyId, child.getId());
     }
 
+    /**
+     * Children and parents of the caller's family, served from the {@link FamilyCache}
+     */
     public FamilyResponseDTO getFamily(String token) {
         UUID familyId = jwtService.extractFamilyId(token);
-        Family family = familyRepository.findById(familyId)
-                .orElseThrow(() -> new IllegalArgumentException("Family not found"));
-
-        List<ChildResponseDTO> children = new ArrayList<>();
-        List<ParentResponseDTO> parents = new ArrayList<>();
-        family.getChildren().forEach(child -> {
-            ChildResponseDTO responseDTO = ChildService.toResponseDTO(child);
-            children.add(responseDTO);
-        });
-        family.getParents().forEach(parent -> {
-            ParentResponseDTO responseDTO = parentService.mapToResponseDTO(parent);
-            parents.add(responseDTO);
-        });
-
-        FamilyResponseDTO response = FamilyResponseDTO.builder()
-                .children(children)
-                .parents(parents)
-                .build();
-
-        return response;
+        if (familyId == null) {
+            throw new IllegalArgumentException("Parent does not belong to any family");
+        }
+        return familyCache.get(familyId, () -> loadFamily(familyId));
     }
 
     public List<ParentResponseDTO> getFamilyParents(String token) {
-        UUID familyId = jwtService.extractFamilyId(token);
-        Family family = familyRepository.findById(familyId)
-                .orElseThrow(() -> new IllegalArgumentException("Family not found"));
-
-        List<ParentResponseDTO> parents = new ArrayList<>();
-
-        family.getParents().forEach(parent -> {
-            ParentResponseDTO responseDTO = parentService.mapToResponseDTO(parent);
-            parents.add(responseDTO);
-        });
-        return parents;
+        return getFamily(token).getParents();
     }
 
     public List<ChildResponseDTO> getFamilyChildren(String token) {
-        UUID familyId = jwtService.extractFamilyId(token);
-        Family family = familyRepository.findById(familyId)
-                .orElseThrow(() -> new IllegalArgumentException("Family not found"));
+        return getFamily(token).getChildren();
+    }
 
-        List<ChildResponseDTO> children = new ArrayList<>();
-        family.getChildren().forEach(child -> {
-            ChildResponseDTO responseDTO = ChildService.toResponseDTO(child);
-            children.add(responseDTO);
-        });
-        return children;
+    private FamilyResponseDTO loadFamily(UUID familyId) {
+        if (!familyRepository.existsById(familyId)) {
+            throw new IllegalArgumentException("Family not found");
+        }
+        // Queried directly so nothing depends on an open session for lazy collections
+        return FamilyResponseDTO.builder()
+                .children(childRepository.findByFamilyId(familyId).stream()
+                        .map(ChildService::toResponseDTO)
+                        .toList())
+                .parents(parentRepository.findByFamilyId(familyId).stream()
+                        .map(parentService::mapToResponseDTO)
+                        .toList())
+                .build();
     }
 }
@@ -1,15 +1,22 @@
 package com.example.kidic.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 @Service
 public class FileStorageService {
     
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
     
+    @Autowired
+    private BlobStore blobStore;
+    
     private static final String[] ALLOWED_EXTENSIONS = {
         ".pdf", ".jpg", ".jpeg", ".png", ".gif", ".bmp", ".tiff",
         ".doc", ".docx", ".txt", ".mp4", ".avi", ".mov", ".mp3", ".wav"
@@ -24,9 +31,9 @@ public class FileStorageService {
     };
     
     /**
-     * Process uploaded file and return file information for database storage
+     * Validate the uploaded file, stream it into the blob store and return its metadata and content hash
      */
-    public FileStorageResult processFileForDatabase(MultipartFile file) throws IOException {
+    public FileStorageResult storeFile(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
@@ -48,16 +55,21 @@ public class FileStorageService {
             throw new IllegalArgumentException("File content type not allowed");
         }
         
-        // Read file content into byte array
-        byte[] fileContent = file.getBytes();
+        // Stream the upload straight to the blob store, never reading it into memory
+        String contentHash;
+        try (InputStream content = file.getInputStream()) {
+            contentHash = blobStore.put(content);
+        }
         
-        // Return file information for database storage
+        // Return file information for database storage. The hash doubles as the ETag and the
+        // upload time as Last-Modified, which HTTP dates carry with second precision only.
         return new FileStorageResult(
             originalFileName,
-            fileContent,
+            contentHash,
             file.getSize(),
             contentType,
-            getFileTypeFromContentType(contentType)
+            getFileTypeFromContentType(contentType),
+            Instant.now().truncatedTo(ChronoUnit.SECONDS)
         );
     }
     
@@ -132,26 +144,29 @@ public class FileStorageService {
      */
     public static class FileStorageResult {
         private final String originalFileName;
-        private final byte[] fileContent;
+        private final String contentHash;
         private final long fileSize;
         private final String contentType;
         private final com.example.kidic.entity.MedicalRecord.FileType fileType;
+        private final Instant uploadedAt;
         
-        public FileStorageResult(String originalFileName, byte[] fileContent,
-                               long fileSize, String contentType, com.example.kidic.entity.MedicalRecord.FileType fileType) {
+        public FileStorageResult(String originalFileName, String contentHash,
+                               long fileSize, String contentType, com.example.kidic.entity.MedicalRecord.FileType fileType,
+                               Instant uploadedAt) {
             this.originalFileName = originalFileName;
-            this.fileContent = fileContent;
+            this.contentHash = contentHash;
             this.fileSize = fileSize;
             this.contentType = contentType;
             this.fileType = fileType;
+            this.uploadedAt = uploadedAt;
         }
         
         public String getOriginalFileName() {
             return originalFileName;
         }
         
-        public byte[] getFileContent() {
-            return fileContent;
+        public String getContentHash() {
+            return contentHash;
         }
         
         public long getFileSize() {
@@ -165,5 +180,9 @@ public class FileStorageService {
         public com.example.kidic.entity.MedicalRecord.FileType getFileType() {
             return fileType;
         }
+        
+        public Instant getUploadedAt() {
+            return uploadedAt;
+        }
     }
 }
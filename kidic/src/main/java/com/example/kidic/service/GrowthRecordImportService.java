@@ -0,0 +1,462 @@
+package com.example.kidic.service;
+
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.dto.GrowthImportReportDTO;
+import com.example.kidic.entity.Child;
+import com.example.kidic.entity.GrowthRecord;
+import com.example.kidic.repository.ChildRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Imports growth measurements from a CSV or NDJSON stream. Lines are parsed one at a time,
+ * so memory use does not depend on the size of the upload. Valid rows are inserted with
+ * JDBC batches, one transaction per chunk, and invalid rows are reported by line number
+ * without stopping the import. The child's summary is rebuilt once at the end.
+ */
+@Service
+public class GrowthRecordImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(GrowthRecordImportService.class);
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final String INSERT = "INSERT INTO growth_records"
+            + " (additional_info, date_of_record, height, weight, type, status, child_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    static final int MAX_LINE_LENGTH = 4096;
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(MediaType contentType) {
+            if (contentType != null && TEXT_CSV.includes(contentType)) {
+                return CSV;
+            }
+            if (contentType != null && APPLICATION_NDJSON.includes(contentType)) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Import must be text/csv or application/x-ndjson");
+        }
+    }
+
+    private enum Column {
+        DATE_OF_RECORD, HEIGHT, WEIGHT, TYPE, STATUS, ADDITIONAL_INFO
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChildRepository childRepository;
+
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+
+    @Autowired
+    private GrowthSummaryService growthSummaryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${kidic.growth.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${kidic.growth.import.max-rows:200000}")
+    private int maxRows;
+
+    @Value("${kidic.growth.import.max-errors:1000}")
+    private int maxErrors;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import every row of the stream for the child. Rows need a dateOfRecord and a height or
+     * a weight; type and status default to PHYSICAL and ACHIEVED.
+     */
+    public GrowthImportReportDTO importForChild(Long childId, Format format, InputStream content) throws IOException {
+        childAccessGuard.requireAccess(childId);
+        Import run = new Import(childId, childRepository.getReferenceById(childId));
+        LineReader reader = new LineReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+
+        try {
+            Column[] columns = null;
+            while (reader.next()) {
+                if (reader.isBlank()) {
+                    continue;
+                }
+                if (reader.tooLong) {
+                    run.reject(reader.lineNumber, "Line is longer than " + MAX_LINE_LENGTH + " characters");
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = csvHeader(reader.line.toString());
+                    continue;
+                }
+                if (run.rowsRead == maxRows) {
+                    run.reject(reader.lineNumber, "Import is limited to " + maxRows + " rows, the rest was skipped");
+                    break;
+                }
+                run.rowsRead++;
+                try {
+                    GrowthRecord record = format == Format.CSV
+                            ? csvRow(reader.line.toString(), columns)
+                            : jsonRow(reader.line.toString());
+                    record.setChild(run.child);
+                    validate(record);
+                    run.add(reader.lineNumber, record);
+                } catch (IllegalArgumentException e) {
+                    run.reject(reader.lineNumber, e.getMessage());
+                }
+            }
+            run.flush();
+        } finally {
+            // Chunks commit as they go, so the summary is rebuilt even when the upload fails midway
+            if (run.imported > 0) {
+                growthSummaryService.rebuild(childId);
+            }
+        }
+        return GrowthImportReportDTO.builder()
+                .childId(childId)
+                .rowsRead(run.rowsRead)
+                .imported(run.imported)
+                .rejected(run.rejected)
+                .errors(run.errors)
+                .errorsTruncated(run.rejected > run.errors.size())
+                .build();
+    }
+
+    private class Import {
+        private final Long childId;
+        private final Child child;
+        private final List<GrowthRecord> chunk = new ArrayList<>(chunkSize);
+        private final List<Long> chunkLines = new ArrayList<>(chunkSize);
+        private final List<GrowthImportReportDTO.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long rejected;
+
+        private Import(Long childId, Child child) {
+            this.childId = childId;
+            this.child = child;
+        }
+
+        private void add(long lineNumber, GrowthRecord record) {
+            chunk.add(record);
+            chunkLines.add(lineNumber);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        private void reject(long lineNumber, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new GrowthImportReportDTO.RowError(lineNumber, message));
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(chunk));
+                imported += chunk.size();
+            } catch (DataAccessException e) {
+                // Earlier chunks stay imported, the rows of this one are reported
+                log.warn("Could not import a chunk of growth records for child {}", childId, e);
+                for (Long lineNumber : chunkLines) {
+                    reject(lineNumber, "Could not be saved");
+                }
+            }
+            chunk.clear();
+            chunkLines.clear();
+        }
+    }
+
+    private void insert(List<GrowthRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                GrowthRecord record = records.get(i);
+                statement.setString(1, record.getAdditionalInfo());
+                statement.setDate(2, Date.valueOf(record.getDateOfRecord()));
+                setDouble(statement, 3, record.getHeight());
+                setDouble(statement, 4, record.getWeight());
+                statement.setString(5, record.getType().name());
+                statement.setString(6, record.getStatus().name());
+                statement.setLong(7, record.getChild().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+    }
+
+    private static void setDouble(PreparedStatement statement, int index, Double value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.DOUBLE);
+        } else {
+            statement.setDouble(index, value);
+        }
+    }
+
+    private void validate(GrowthRecord record) {
+        if (record.getHeight() == null && record.getWeight() == null) {
+            throw new IllegalArgumentException("Row needs a height or a weight");
+        }
+        Set<ConstraintViolation<GrowthRecord>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<GrowthRecord> violation = violations.iterator().next();
+            throw new IllegalArgumentException(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+    }
+
+    private static Column[] csvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Column[] columns = new Column[names.size()];
+        boolean hasDate = false;
+        for (int i = 0; i < columns.length; i++) {
+            String name = names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            columns[i] = switch (name) {
+                case "dateofrecord", "date" -> Column.DATE_OF_RECORD;
+                case "height" -> Column.HEIGHT;
+                case "weight" -> Column.WEIGHT;
+                case "type" -> Column.TYPE;
+                case "status" -> Column.STATUS;
+                case "additionalinfo" -> Column.ADDITIONAL_INFO;
+                default -> throw new IllegalArgumentException("Unknown CSV column " + names.get(i).trim());
+            };
+            hasDate |= columns[i] == Column.DATE_OF_RECORD;
+        }
+        if (!hasDate) {
+            throw new IllegalArgumentException("CSV header must have a dateOfRecord column");
+        }
+        return columns;
+    }
+
+    private static GrowthRecord csvRow(String line, Column[] columns) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " fields but found " + fields.size());
+        }
+        String date = null, height = null, weight = null, type = null, status = null, info = null;
+        for (int i = 0; i < columns.length; i++) {
+            String field = fields.get(i).trim();
+            switch (columns[i]) {
+                case DATE_OF_RECORD -> date = field;
+                case HEIGHT -> height = field;
+                case WEIGHT -> weight = field;
+                case TYPE -> type = field;
+                case STATUS -> status = field;
+                case ADDITIONAL_INFO -> info = field;
+            }
+        }
+        return toRecord(date, height, weight, type, status, info);
+    }
+
+    private GrowthRecord jsonRow(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Not valid JSON");
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return toRecord(text(node, "dateOfRecord"), text(node, "height"), text(node, "weight"),
+                text(node, "type"), text(node, "status"), text(node, "additionalInfo"));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static GrowthRecord toRecord(String date, String height, String weight,
+                                         String type, String status, String additionalInfo) {
+        GrowthRecord record = new GrowthRecord();
+        if (!isEmpty(date)) {
+            try {
+                record.setDateOfRecord(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("dateOfRecord must be a date like 2024-01-31");
+            }
+        }
+        record.setHeight(measurement("height", height));
+        record.setWeight(measurement("weight", weight));
+        record.setType(isEmpty(type) ? GrowthRecord.GrowthType.PHYSICAL : parseEnum(GrowthRecord.GrowthType.class, "type", type));
+        record.setStatus(isEmpty(status) ? GrowthRecord.StatusType.ACHIEVED : parseEnum(GrowthRecord.StatusType.class, "status", status));
+        record.setAdditionalInfo(isEmpty(additionalInfo) ? null : additionalInfo);
+        return record;
+    }
+
+    private static Double measurement(String name, String value) {
+        if (isEmpty(value)) {
+            return null;
+        }
+        double parsed;
+        try {
+            parsed = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+        if (!(parsed > 0) || Double.isInfinite(parsed)) {
+            throw new IllegalArgumentException(name + " must be a positive number");
+        }
+        return parsed;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " must be one of " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // RFC 4180 fields on one line: quoted fields may contain commas and doubled quotes
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Reads lines into one reused buffer. Lines longer than {@link #MAX_LINE_LENGTH} are
+     * skipped to their end and flagged, so a file without line breaks cannot exhaust memory.
+     */
+    private static class LineReader {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+        private long lineNumber;
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        private boolean next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        if (read) {
+                            lineNumber++;
+                        }
+                        return read;
+                    }
+                }
+                char c = buffer[position++];
+                read = true;
+                if (c == '\n') {
+                    lineNumber++;
+                    return true;
+                }
+                if (c == '\r' || (lineNumber == 0 && line.isEmpty() && c == '\uFEFF')) {
+                    continue;
+                }
+                if (line.length() < MAX_LINE_LENGTH) {
+                    line.append(c);
+                } else {
+                    tooLong = true;
+                }
+            }
+        }
+
+        private boolean isBlank() {
+            for (int i = 0; i < line.length(); i++) {
+                if (!Character.isWhitespace(line.charAt(i))) {
+                    return false;
+                }
+            }
+            return !tooLong;
+        }
+    }
+}
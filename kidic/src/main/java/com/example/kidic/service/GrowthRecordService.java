@@ -1,5 +1,10 @@
 package com.example.kidic.service;
 
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.dto.GrowthChartDTO;
+import com.example.kidic.dto.GrowthMeasurementDTO;
+import com.example.kidic.dto.GrowthRecordResponseDTO;
+import com.example.kidic.dto.GrowthRecordSummaryDTO;
 import com.example.kidic.entity.Child;
 import com.example.kidic.entity.GrowthRecord;
 import com.example.kidic.repository.ChildRepository;
@@ -9,20 +14,83 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @Transactional
 public class GrowthRecordService {
 
+    public static final int DEFAULT_CHART_POINTS = 200;
+    static final int MIN_CHART_POINTS = 3;
+    static final int MAX_CHART_POINTS = 2000;
+
     @Autowired
     private GrowthRecordRepository growthRecordRepository;
 
     @Autowired
     private ChildRepository childRepository;
 
-    public List<GrowthRecord> listForChild(Long childId) {
-        return growthRecordRepository.findByChildId(childId);
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+
+    @Autowired
+    private GrowthStandards growthStandards;
+
+    @Autowired
+    private GrowthSummaryService growthSummaryService;
+
+    /**
+     * The child's records in date order, each with its WHO percentiles
+     */
+    @Transactional(readOnly = true)
+    public List<GrowthRecordResponseDTO> listForChild(Long childId) {
+        childAccessGuard.requireAccess(childId);
+        Child child = childRepository.findById(childId)
+                .orElseThrow(() -> new IllegalArgumentException("Child not found"));
+        List<GrowthRecordSummaryDTO> records = growthRecordRepository.findSummariesByChildId(childId);
+        List<GrowthRecordResponseDTO> result = new ArrayList<>(records.size());
+        for (GrowthRecordSummaryDTO record : records) {
+            result.add(toResponseDTO(record, child.getDateOfBirth(), child.getGender()));
+        }
+        return result;
+    }
+
+    /**
+     * Height and weight series for charts, each reduced to at most maxPoints points
+     */
+    @Transactional(readOnly = true)
+    public GrowthChartDTO getChart(Long childId, int maxPoints) {
+        if (maxPoints < MIN_CHART_POINTS || maxPoints > MAX_CHART_POINTS) {
+            throw new IllegalArgumentException("Chart points must be between " + MIN_CHART_POINTS + " and " + MAX_CHART_POINTS);
+        }
+        childAccessGuard.requireAccess(childId);
+        Child child = childRepository.findById(childId)
+                .orElseThrow(() -> new IllegalArgumentException("Child not found"));
+        List<GrowthMeasurementDTO> measurements = growthRecordRepository.findMeasurementsByChildId(childId);
+
+        int size = measurements.size();
+        double[] heightDays = new double[size];
+        double[] heights = new double[size];
+        double[] weightDays = new double[size];
+        double[] weights = new double[size];
+        int heightCount = 0;
+        int weightCount = 0;
+        for (GrowthMeasurementDTO measurement : measurements) {
+            double day = measurement.getDateOfRecord().toEpochDay();
+            if (measurement.getHeight() != null) {
+                heightDays[heightCount] = day;
+                heights[heightCount++] = measurement.getHeight();
+            }
+            if (measurement.getWeight() != null) {
+                weightDays[weightCount] = day;
+                weights[weightCount++] = measurement.getWeight();
+            }
+        }
+
+        return new GrowthChartDTO(childId, heightCount, weightCount,
+                chartSeries(heightDays, heights, heightCount, maxPoints, GrowthStandards.Indicator.LENGTH, child),
+                chartSeries(weightDays, weights, weightCount, maxPoints, GrowthStandards.Indicator.WEIGHT, child));
     }
 
     public GrowthRecord addForChild(Long childId,
@@ -32,10 +100,12 @@ public class GrowthRecordService {
                                     Double weight,
                                     GrowthRecord.GrowthType type,
                                     GrowthRecord.StatusType status) {
-        Child child = childRepository.findById(childId)
-                .orElseThrow(() -> new IllegalArgumentException("Child not found"));
-        GrowthRecord record = new GrowthRecord(additionalInfo, dateOfRecord, height, weight, type, status, child);
-        return growthRecordRepository.save(record);
+        childAccessGuard.requireAccess(childId);
+        Child child = childRepository.getReferenceById(childId);
+        GrowthRecord record = growthRecordRepository.save(
+                new GrowthRecord(additionalInfo, dateOfRecord, height, weight, type, status, child));
+        growthSummaryService.recordAdded(childId, dateOfRecord, height, weight);
+        return record;
     }
 
     public GrowthRecord editForChild(Long childId,
@@ -46,28 +116,84 @@ public class GrowthRecordService {
                                      Double weight,
                                      GrowthRecord.GrowthType type,
                                      GrowthRecord.StatusType status) {
+        childAccessGuard.requireAccess(childId);
         GrowthRecord record = growthRecordRepository.findById(recordId)
                 .orElseThrow(() -> new IllegalArgumentException("Growth record not found"));
         if (!record.getChild().getId().equals(childId)) {
             throw new IllegalArgumentException("Record does not belong to child");
         }
+        LocalDate oldDate = record.getDateOfRecord();
+        Double oldHeight = record.getHeight();
+        Double oldWeight = record.getWeight();
         if (additionalInfo != null) record.setAdditionalInfo(additionalInfo);
         if (dateOfRecord != null) record.setDateOfRecord(dateOfRecord);
         if (height != null) record.setHeight(height);
         if (weight != null) record.setWeight(weight);
         if (type != null) record.setType(type);
         if (status != null) record.setStatus(status);
-        return growthRecordRepository.save(record);
+        GrowthRecord saved = growthRecordRepository.save(record);
+        growthSummaryService.recordEdited(childId, oldDate, oldHeight, oldWeight,
+                saved.getDateOfRecord(), saved.getHeight(), saved.getWeight());
+        return saved;
     }
 
     public void deleteForChild(Long childId, Long recordId) {
+        childAccessGuard.requireAccess(childId);
         GrowthRecord record = growthRecordRepository.findById(recordId)
                 .orElseThrow(() -> new IllegalArgumentException("Growth record not found"));
         if (!record.getChild().getId().equals(childId)) {
             throw new IllegalArgumentException("Record does not belong to child");
         }
         growthRecordRepository.delete(record);
+        growthSummaryService.recordDeleted(childId, record.getDateOfRecord(), record.getHeight(), record.getWeight());
     }
-}
 
+    private GrowthRecordResponseDTO toResponseDTO(GrowthRecordSummaryDTO record, LocalDate dateOfBirth, Boolean male) {
+        GrowthRecordResponseDTO dto = new GrowthRecordResponseDTO();
+        dto.setId(record.getId());
+        dto.setType(record.getType());
+        dto.setStatus(record.getStatus());
+        dto.setDateOfRecord(record.getDateOfRecord());
+        dto.setHeight(record.getHeight());
+        dto.setWeight(record.getWeight());
+        dto.setAdditionalInfo(record.getAdditionalInfo());
+        if (dateOfBirth == null || male == null || record.getDateOfRecord() == null) {
+            return dto;
+        }
+        double age = GrowthStandards.ageInMonths(dateOfBirth, record.getDateOfRecord());
+        dto.setAgeInMonths(age);
+        if (record.getHeight() != null) {
+            double z = growthStandards.zScore(GrowthStandards.Indicator.LENGTH, male, age, record.getHeight());
+            if (!Double.isNaN(z)) {
+                dto.setHeightZScore(z);
+                dto.setHeightPercentile(GrowthStandards.percentile(z));
+            }
+        }
+        if (record.getWeight() != null) {
+            double z = growthStandards.zScore(GrowthStandards.Indicator.WEIGHT, male, age, record.getWeight());
+            if (!Double.isNaN(z)) {
+                dto.setWeightZScore(z);
+                dto.setWeightPercentile(GrowthStandards.percentile(z));
+            }
+        }
+        return dto;
+    }
 
+    private List<GrowthChartDTO.Point> chartSeries(double[] days, double[] values, int count, int maxPoints,
+                                                   GrowthStandards.Indicator indicator, Child child) {
+        int[] kept = LargestTriangleThreeBuckets.select(days, values, count, maxPoints);
+        boolean annotate = child.getDateOfBirth() != null && child.getGender() != null;
+        double birthDay = annotate ? child.getDateOfBirth().toEpochDay() : 0;
+        List<GrowthChartDTO.Point> points = new ArrayList<>(kept.length);
+        for (int index : kept) {
+            Double percentile = null;
+            if (annotate) {
+                double age = (days[index] - birthDay) / GrowthStandards.DAYS_PER_MONTH;
+                double z = growthStandards.zScore(indicator, child.getGender(), age, values[index]);
+                percentile = Double.isNaN(z) ? null : GrowthStandards.percentile(z);
+            }
+            points.add(new GrowthChartDTO.Point(LocalDate.ofEpochDay((long) days[index]), values[index], percentile));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.kidic.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WHO growth reference as LMS parameters (Box-Cox power, median, coefficient of variation)
+ * for every month of age. The table is loaded once into one primitive array per indicator
+ * and sex, so a z-score is an index computation, a linear interpolation and a few floating
+ * point operations, with no allocation.
+ */
+@Service
+public class GrowthStandards {
+
+    /** Average month length used by WHO to convert ages in days */
+    static final double DAYS_PER_MONTH = 365.25 / 12;
+
+    public enum Indicator {
+        WEIGHT, LENGTH
+    }
+
+    // [indicator * 2 + sex] -> L, M, S interleaved per month
+    private final double[][] tables = new double[Indicator.values().length * 2][];
+    private final int maxMonth;
+
+    public GrowthStandards(@Value("${kidic.growth.reference:classpath:growth/who-lms.csv}") Resource reference) throws IOException {
+        List<double[]>[] anchors = readAnchors(reference);
+        int last = -1;
+        for (int i = 0; i < tables.length; i++) {
+            if (anchors[i].isEmpty()) {
+                throw new IllegalStateException("Growth reference has no rows for " + tableName(i));
+            }
+            tables[i] = interpolateMonths(anchors[i], tableName(i));
+            int months = tables[i].length / 3 - 1;
+            if (last >= 0 && months != last) {
+                throw new IllegalStateException("Growth reference tables must cover the same ages");
+            }
+            last = months;
+        }
+        maxMonth = last;
+    }
+
+    public int getMaxMonth() {
+        return maxMonth;
+    }
+
+    public static double ageInMonths(LocalDate dateOfBirth, LocalDate date) {
+        return ChronoUnit.DAYS.between(dateOfBirth, date) / DAYS_PER_MONTH;
+    }
+
+    /**
+     * Z-score of a measurement, or NaN outside the covered ages or for non-positive values.
+     * Beyond +-3 SD distances are measured in units of the 2-3 SD interval, as WHO does,
+     * because the LMS curve is not reliable that far out.
+     */
+    public double zScore(Indicator indicator, boolean male, double ageInMonths, double value) {
+        if (!(ageInMonths >= 0 && ageInMonths <= maxMonth && value > 0)) {
+            return Double.NaN;
+        }
+        double[] table = tables[indicator.ordinal() * 2 + (male ? 0 : 1)];
+        int month = Math.min((int) ageInMonths, maxMonth - 1);
+        double fraction = ageInMonths - month;
+        int at = month * 3;
+        double l = table[at] + fraction * (table[at + 3] - table[at]);
+        double m = table[at + 1] + fraction * (table[at + 4] - table[at + 1]);
+        double s = table[at + 2] + fraction * (table[at + 5] - table[at + 2]);
+
+        double z = Math.abs(l) < 1e-9 ? Math.log(value / m) / s : (Math.pow(value / m, l) - 1) / (l * s);
+        if (z > 3) {
+            double sd3 = measurementAt(l, m, s, 3);
+            return 3 + (value - sd3) / (sd3 - measurementAt(l, m, s, 2));
+        }
+        if (z < -3) {
+            double sd3 = measurementAt(l, m, s, -3);
+            return -3 - (sd3 - value) / (measurementAt(l, m, s, -2) - sd3);
+        }
+        return z;
+    }
+
+    /**
+     * Percentile (0-100) of a z-score, using the Zelen and Severo approximation of the
+     * standard normal distribution (absolute error below 7.5e-8)
+     */
+    public static double percentile(double z) {
+        if (Double.isNaN(z)) {
+            return Double.NaN;
+        }
+        double t = 1 / (1 + 0.2316419 * Math.abs(z));
+        double density = Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+        double tail = density * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937
+                + t * (-1.821255978 + t * 1.330274429))));
+        return 100 * (z >= 0 ? 1 - tail : tail);
+    }
+
+    private static double measurementAt(double l, double m, double s, double z) {
+        return Math.abs(l) < 1e-9 ? m * Math.exp(s * z) : m * Math.pow(1 + l * s * z, 1 / l);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<double[]>[] readAnchors(Resource reference) throws IOException {
+        List<double[]>[] anchors = new List[Indicator.values().length * 2];
+        for (int i = 0; i < anchors.length; i++) {
+            anchors[i] = new ArrayList<>();
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(reference.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 6) {
+                    throw new IllegalStateException("Growth reference line " + lineNumber + " must have 6 fields");
+                }
+                int sex = switch (fields[1].trim()) {
+                    case "M" -> 0;
+                    case "F" -> 1;
+                    default -> throw new IllegalStateException("Growth reference line " + lineNumber + " has unknown sex " + fields[1]);
+                };
+                int table = Indicator.valueOf(fields[0].trim()).ordinal() * 2 + sex;
+                anchors[table].add(new double[]{
+                        Integer.parseInt(fields[2].trim()),
+                        Double.parseDouble(fields[3].trim()),
+                        Double.parseDouble(fields[4].trim()),
+                        Double.parseDouble(fields[5].trim())});
+            }
+        }
+        return anchors;
+    }
+
+    // Expands anchor rows (month, L, M, S) into one L, M, S triple per month
+    private static double[] interpolateMonths(List<double[]> anchors, String name) {
+        anchors.sort((a, b) -> Double.compare(a[0], b[0]));
+        if (anchors.get(0)[0] != 0) {
+            throw new IllegalStateException("Growth reference for " + name + " must start at month 0");
+        }
+        int last = (int) anchors.get(anchors.size() - 1)[0];
+        if (last < 1) {
+            throw new IllegalStateException("Growth reference for " + name + " must cover at least one month");
+        }
+        double[] table = new double[(last + 1) * 3];
+        for (int i = 1; i < anchors.size(); i++) {
+            double[] from = anchors.get(i - 1);
+            double[] to = anchors.get(i);
+            if (from[0] == to[0]) {
+                throw new IllegalStateException("Growth reference for " + name + " lists month " + (int) to[0] + " twice");
+            }
+            for (int month = (int) from[0]; month <= (int) to[0]; month++) {
+                double fraction = (month - from[0]) / (to[0] - from[0]);
+                for (int p = 0; p < 3; p++) {
+                    table[month * 3 + p] = from[p + 1] + fraction * (to[p + 1] - from[p + 1]);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static String tableName(int table) {
+        return Indicator.values()[table / 2] + (table % 2 == 0 ? " M" : " F");
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.kidic.service;
+
+import com.example.kidic.repository.ChildRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recomputes every child's {@link com.example.kidic.entity.GrowthSummary} from the growth
+ * records, so that summaries are backfilled after deployment and any drift is repaired.
+ * Children are read in id order one batch at a time, and each batch is rebuilt in its own
+ * transaction on a pool of worker threads.
+ */
+@Component
+@ConditionalOnProperty(name = "kidic.growth.summary.rebuild.enabled", havingValue = "true", matchIfMissing = true)
+public class GrowthSummaryRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(GrowthSummaryRebuildJob.class);
+
+    @Autowired
+    private ChildRepository childRepository;
+
+    @Autowired
+    private GrowthSummaryService growthSummaryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${kidic.growth.summary.rebuild.batch-size:100}")
+    private int batchSize;
+
+    @Value("${kidic.growth.summary.rebuild.threads:4}")
+    private int threads;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${kidic.growth.summary.rebuild.cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuildAll();
+    }
+
+    /**
+     * Rebuild the summaries of all children and return how many were rebuilt
+     */
+    public int rebuildAll() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "growth-summary-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Integer>> batches = new ArrayList<>();
+            long lastId = 0;
+            List<Long> ids;
+            do {
+                ids = childRepository.findIdsAfter(lastId, PageRequest.of(0, batchSize));
+                if (!ids.isEmpty()) {
+                    List<Long> batch = ids;
+                    batches.add(executor.submit(() -> transactionTemplate.execute(status -> {
+                        batch.forEach(growthSummaryService::rebuild);
+                        return batch.size();
+                    })));
+                    lastId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == batchSize);
+
+            int rebuilt = 0;
+            for (Future<Integer> batch : batches) {
+                try {
+                    rebuilt += batch.get();
+                } catch (ExecutionException e) {
+                    // The other batches still count, this one is retried on the next run
+                    log.warn("Could not rebuild a batch of growth summaries", e.getCause());
+                }
+            }
+            log.info("Rebuilt {} growth summaries", rebuilt);
+            return rebuilt;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding growth summaries", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
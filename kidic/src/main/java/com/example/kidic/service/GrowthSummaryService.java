@@ -0,0 +1,283 @@
+package com.example.kidic.service;
+
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.dto.GrowthMeasurementDTO;
+import com.example.kidic.dto.GrowthSummaryDTO;
+import com.example.kidic.entity.GrowthSummary;
+import com.example.kidic.repository.GrowthRecordRepository;
+import com.example.kidic.repository.GrowthSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains {@link GrowthSummary} rows. Appending a measurement, the usual write, updates
+ * the row in place. Changes that could move an extreme or an end of a series, such as
+ * deleting the latest record or moving a record onto the baseline date, recompute the
+ * child's row from its records instead.
+ */
+@Service
+@Transactional
+public class GrowthSummaryService {
+
+    @Autowired
+    private GrowthSummaryRepository growthSummaryRepository;
+
+    @Autowired
+    private GrowthRecordRepository growthRecordRepository;
+
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+
+    @Value("${kidic.growth.summary.velocity-window-months:3}")
+    private int velocityWindowMonths;
+
+    private enum Metric {
+        HEIGHT, WEIGHT
+    }
+
+    /**
+     * Summary of a child's records, built on first access for children that have none yet
+     */
+    public GrowthSummaryDTO getSummary(Long childId) {
+        childAccessGuard.requireAccess(childId);
+        GrowthSummary summary = growthSummaryRepository.findById(childId)
+                .filter(GrowthSummary::isBuilt)
+                .orElseGet(() -> rebuild(childId));
+        return GrowthSummaryDTO.builder()
+                .childId(childId)
+                .recordCount(summary.getRecordCount())
+                .velocityWindowMonths(velocityWindowMonths)
+                .height(toSeriesDTO(summary.getHeight()))
+                .weight(toSeriesDTO(summary.getWeight()))
+                .build();
+    }
+
+    /**
+     * Called after a new record has been saved
+     */
+    public void recordAdded(Long childId, LocalDate date, Double height, Double weight) {
+        GrowthSummary summary = lockExisting(childId);
+        if (summary == null) {
+            return;
+        }
+        summary.setRecordCount(summary.getRecordCount() + 1);
+        if (!add(summary.getHeight(), childId, Metric.HEIGHT, date, height, true)
+                || !add(summary.getWeight(), childId, Metric.WEIGHT, date, weight, true)) {
+            recompute(summary);
+        }
+    }
+
+    /**
+     * Called after a record's date or measurements have been changed
+     */
+    public void recordEdited(Long childId, LocalDate oldDate, Double oldHeight, Double oldWeight,
+                             LocalDate date, Double height, Double weight) {
+        if (Objects.equals(oldDate, date) && Objects.equals(oldHeight, height) && Objects.equals(oldWeight, weight)) {
+            return;
+        }
+        GrowthSummary summary = lockExisting(childId);
+        if (summary == null) {
+            return;
+        }
+        // The record keeps its id, so it is not the newest record on its date
+        if (!remove(summary.getHeight(), oldDate, oldHeight)
+                || !remove(summary.getWeight(), oldDate, oldWeight)
+                || !add(summary.getHeight(), childId, Metric.HEIGHT, date, height, false)
+                || !add(summary.getWeight(), childId, Metric.WEIGHT, date, weight, false)) {
+            recompute(summary);
+        }
+    }
+
+    /**
+     * Called after a record has been deleted
+     */
+    public void recordDeleted(Long childId, LocalDate date, Double height, Double weight) {
+        GrowthSummary summary = lockExisting(childId);
+        if (summary == null) {
+            return;
+        }
+        summary.setRecordCount(summary.getRecordCount() - 1);
+        if (!remove(summary.getHeight(), date, height) || !remove(summary.getWeight(), date, weight)) {
+            recompute(summary);
+        }
+    }
+
+    public void childDeleted(Long childId) {
+        growthSummaryRepository.deleteByChildId(childId);
+    }
+
+    /**
+     * Recompute a child's summary from its records
+     */
+    public GrowthSummary rebuild(Long childId) {
+        growthSummaryRepository.insertIfAbsent(childId);
+        GrowthSummary summary = growthSummaryRepository.findForUpdate(childId).orElseThrow();
+        recompute(summary);
+        return summary;
+    }
+
+    /**
+     * Lock the child's row for an incremental update. The row is inserted if absent before it is
+     * locked, since a lock on a row that does not exist yet serializes nothing. A row that was
+     * not built yet is built from the records, which already include the change; null is
+     * returned in that case.
+     */
+    private GrowthSummary lockExisting(Long childId) {
+        growthSummaryRepository.insertIfAbsent(childId);
+        GrowthSummary summary = growthSummaryRepository.findForUpdate(childId).orElseThrow();
+        if (!summary.isBuilt()) {
+            recompute(summary);
+            return null;
+        }
+        return summary;
+    }
+
+    private void recompute(GrowthSummary summary) {
+        Long childId = summary.getChildId();
+        summary.setRecordCount(growthRecordRepository.countByChildId(childId));
+        summary.setHeight(new GrowthSummary.Series());
+        summary.setWeight(new GrowthSummary.Series());
+        // Date order, so every measurement is appended and becomes the latest one
+        List<GrowthMeasurementDTO> measurements = growthRecordRepository.findMeasurementsByChildId(childId);
+        for (GrowthMeasurementDTO measurement : measurements) {
+            append(summary.getHeight(), measurement.getDateOfRecord(), measurement.getHeight());
+            append(summary.getWeight(), measurement.getDateOfRecord(), measurement.getWeight());
+        }
+        for (GrowthMeasurementDTO measurement : measurements) {
+            setBaselineIfBefore(summary.getHeight(), measurement.getDateOfRecord(), measurement.getHeight());
+            setBaselineIfBefore(summary.getWeight(), measurement.getDateOfRecord(), measurement.getWeight());
+        }
+    }
+
+    private static void append(GrowthSummary.Series series, LocalDate date, Double value) {
+        if (value == null) {
+            return;
+        }
+        if (series.getCount() == 0) {
+            series.setEarliestDate(date);
+            series.setEarliestValue(value);
+        }
+        include(series, value);
+        series.setLatestDate(date);
+        series.setLatestValue(value);
+    }
+
+    // Measurements are visited in date order, so the last one before the window wins
+    private void setBaselineIfBefore(GrowthSummary.Series series, LocalDate date, Double value) {
+        if (value != null && !date.isAfter(windowStart(series))) {
+            series.setBaselineDate(date);
+            series.setBaselineValue(value);
+        }
+    }
+
+    /**
+     * Apply one added measurement, or return false if the series has to be recomputed
+     */
+    private boolean add(GrowthSummary.Series series, Long childId, Metric metric,
+                        LocalDate date, Double value, boolean newest) {
+        if (value == null) {
+            return true;
+        }
+        if (series.getCount() == 0) {
+            append(series, date, value);
+            return true;
+        }
+        // Which record wins a tie on the date depends on ids we cannot compare here
+        if (!newest && (date.equals(series.getEarliestDate()) || date.equals(series.getLatestDate())
+                || date.equals(series.getBaselineDate()))) {
+            return false;
+        }
+        LocalDate windowStart = windowStart(series);
+        include(series, value);
+        if (date.isBefore(series.getEarliestDate())) {
+            series.setEarliestDate(date);
+            series.setEarliestValue(value);
+        }
+        if (!date.isBefore(series.getLatestDate())) {
+            series.setLatestDate(date);
+            series.setLatestValue(value);
+            if (windowStart(series).isAfter(windowStart)) {
+                // The window moved forward, the baseline may be a later record now
+                List<GrowthMeasurementDTO> baseline = lastOnOrBefore(childId, metric, windowStart(series));
+                series.setBaselineDate(baseline.isEmpty() ? null : baseline.get(0).getDateOfRecord());
+                series.setBaselineValue(baseline.isEmpty() ? null : valueOf(baseline.get(0), metric));
+            }
+        } else if (!date.isAfter(windowStart)
+                && (series.getBaselineDate() == null || !date.isBefore(series.getBaselineDate()))) {
+            // A late entry for a day before the window, after the previous baseline
+            series.setBaselineDate(date);
+            series.setBaselineValue(value);
+        }
+        return true;
+    }
+
+    /**
+     * Apply one removed measurement, or return false if the series has to be recomputed
+     */
+    private static boolean remove(GrowthSummary.Series series, LocalDate date, Double value) {
+        if (value == null) {
+            return true;
+        }
+        if (value.equals(series.getMin()) || value.equals(series.getMax())
+                || date.equals(series.getEarliestDate()) || date.equals(series.getLatestDate())
+                || date.equals(series.getBaselineDate())) {
+            return false;
+        }
+        series.setCount(series.getCount() - 1);
+        return true;
+    }
+
+    private static void include(GrowthSummary.Series series, double value) {
+        series.setCount(series.getCount() + 1);
+        if (series.getMin() == null || value < series.getMin()) {
+            series.setMin(value);
+        }
+        if (series.getMax() == null || value > series.getMax()) {
+            series.setMax(value);
+        }
+    }
+
+    private LocalDate windowStart(GrowthSummary.Series series) {
+        return series.getLatestDate().minusMonths(velocityWindowMonths);
+    }
+
+    private List<GrowthMeasurementDTO> lastOnOrBefore(Long childId, Metric metric, LocalDate date) {
+        PageRequest first = PageRequest.of(0, 1);
+        return metric == Metric.HEIGHT
+                ? growthRecordRepository.findHeightsOnOrBefore(childId, date, first)
+                : growthRecordRepository.findWeightsOnOrBefore(childId, date, first);
+    }
+
+    private static Double valueOf(GrowthMeasurementDTO measurement, Metric metric) {
+        return metric == Metric.HEIGHT ? measurement.getHeight() : measurement.getWeight();
+    }
+
+    // Change per month from the baseline, or from the first measurement for short histories
+    private static GrowthSummaryDTO.Series toSeriesDTO(GrowthSummary.Series series) {
+        if (series.getCount() == 0) {
+            return GrowthSummaryDTO.Series.builder().count(0).build();
+        }
+        LocalDate fromDate = series.getBaselineDate() != null ? series.getBaselineDate() : series.getEarliestDate();
+        double fromValue = series.getBaselineDate() != null ? series.getBaselineValue() : series.getEarliestValue();
+        long days = ChronoUnit.DAYS.between(fromDate, series.getLatestDate());
+        Double velocity = days == 0 ? null
+                : (series.getLatestValue() - fromValue) / (days / GrowthStandards.DAYS_PER_MONTH);
+        return GrowthSummaryDTO.Series.builder()
+                .count(series.getCount())
+                .min(series.getMin())
+                .max(series.getMax())
+                .latestDate(series.getLatestDate())
+                .latestValue(series.getLatestValue())
+                .velocityFromDate(days == 0 ? null : fromDate)
+                .velocityPerMonth(velocity)
+                .build();
+    }
+}
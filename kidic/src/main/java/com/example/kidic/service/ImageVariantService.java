@@ -0,0 +1,203 @@
+package com.example.kidic.service;
+
+import com.example.kidic.entity.ImageVariant;
+import com.example.kidic.repository.ImageVariantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Creates the fixed-size {@link ImageVariant}s of uploaded images with the JDK's ImageIO and
+ * stores them in the {@link BlobStore} next to the original. Opaque images become JPEGs and
+ * images with transparency PNGs. Formats ImageIO cannot decode keep only the original.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    // Larger images are not decoded at all, so a small file cannot expand into gigabytes of pixels
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int VERSION_LENGTH = 12;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    /**
+     * Short form of the original's key, used in image URLs so a new upload gets a new URL
+     */
+    public static String version(String originalHash) {
+        return originalHash == null ? null : originalHash.substring(0, Math.min(VERSION_LENGTH, originalHash.length()));
+    }
+
+    /**
+     * Create the variants of an uploaded image that do not exist yet and return all of them
+     */
+    @Transactional
+    public List<ImageVariant> createVariants(String originalHash) {
+        List<ImageVariant> variants = new ArrayList<>(imageVariantRepository.findByOriginalHash(originalHash));
+        EnumSet<ImageVariant.Size> missing = EnumSet.allOf(ImageVariant.Size.class);
+        variants.forEach(variant -> missing.remove(variant.getSize()));
+        if (missing.isEmpty()) {
+            return variants;
+        }
+
+        int largest = missing.stream().mapToInt(ImageVariant.Size::getMaxDimension).max().orElseThrow();
+        List<ImageVariant> created = new ArrayList<>(missing.size());
+        try {
+            BufferedImage source = read(originalHash, largest);
+            if (source == null) {
+                return variants;
+            }
+            for (ImageVariant.Size size : missing) {
+                created.add(createVariant(originalHash, source, size));
+            }
+        } catch (IOException | RuntimeException e) {
+            // The original is still served, so a broken image must not fail the upload
+            log.warn("Could not create variants of image {}", originalHash, e);
+            return variants;
+        }
+        variants.addAll(imageVariantRepository.saveAll(created));
+        return variants;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ImageVariant> findVariant(String originalHash, ImageVariant.Size size) {
+        if (originalHash == null || size == null) {
+            return Optional.empty();
+        }
+        return imageVariantRepository.findByOriginalHashAndSize(originalHash, size);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeVariant(ImageVariant variant, OutputStream out) throws IOException {
+        blobStore.copyRange(variant.getVariantHash(), 0, variant.getByteSize(), out);
+    }
+
+    // Decodes only every n-th pixel of images far larger than the biggest variant
+    private BufferedImage read(String originalHash, int maxDimension) throws IOException {
+        try (InputStream content = blobStore.open(originalHash);
+             ImageInputStream in = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                log.info("No ImageIO reader for image {}, keeping only the original", originalHash);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    log.warn("Image {} is {}x{}, too large to create variants", originalHash, width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (2 * maxDimension));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private ImageVariant createVariant(String originalHash, BufferedImage source, ImageVariant.Size size) throws IOException {
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage resized = resize(source, size.getMaxDimension(), alpha);
+        byte[] encoded = alpha ? encodePng(resized) : encodeJpeg(resized);
+
+        ImageVariant variant = new ImageVariant();
+        variant.setOriginalHash(originalHash);
+        variant.setSize(size);
+        variant.setVariantHash(blobStore.put(new ByteArrayInputStream(encoded)));
+        variant.setContentType(alpha ? "image/png" : "image/jpeg");
+        variant.setByteSize(encoded.length);
+        variant.setWidth(resized.getWidth());
+        variant.setHeight(resized.getHeight());
+        return variant;
+    }
+
+    /**
+     * Fit the image into a maxDimension square, halving repeatedly so bilinear
+     * filtering never skips source pixels. Never scales up.
+     */
+    private static BufferedImage resize(BufferedImage source, int maxDimension, boolean alpha) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() != targetWidth || current.getHeight() != targetHeight);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+}
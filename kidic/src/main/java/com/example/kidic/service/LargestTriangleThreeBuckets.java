@@ -0,0 +1,69 @@
+package com.example.kidic.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013). Keeps the first and last
+ * point and, from each of the buckets in between, the point spanning the largest triangle
+ * with the previously kept point and the average of the next bucket. Peaks and dips survive,
+ * unlike with averaging or taking every n-th point.
+ */
+final class LargestTriangleThreeBuckets {
+
+    private LargestTriangleThreeBuckets() {
+    }
+
+    /**
+     * Indices of the points to keep, in order. x must be sorted ascending; all points are
+     * kept when there are no more than threshold of them.
+     */
+    static int[] select(double[] x, double[] y, int length, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("Threshold must be at least 3");
+        }
+        if (length <= threshold) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int count = 0;
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = 0;
+        selected[count++] = previous;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket, the third corner of the triangle
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            double largestArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area, the factor does not change the maximum
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (averageY - y[previous]));
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+            selected[count++] = chosen;
+            previous = chosen;
+        }
+
+        selected[count] = length - 1;
+        return selected;
+    }
+}
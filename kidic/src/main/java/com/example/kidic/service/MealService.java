@@ -1,5 +1,6 @@
 package com.example.kidic.service;
 
+import com.example.kidic.config.ChildAccessGuard;
 import com.example.kidic.entity.Child;
 import com.example.kidic.entity.Meal;
 import com.example.kidic.repository.ChildRepository;
@@ -20,7 +21,11 @@ public class MealService {
     @Autowired
     private ChildRepository childRepository;
 
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+
     public List<Meal> listForChild(Long childId) {
+        childAccessGuard.requireAccess(childId);
         return mealRepository.findByChildId(childId);
     }
 
@@ -28,8 +33,8 @@ public class MealService {
                             String title,
                             List<String> ingredients,
                             String recipe) {
-        Child child = childRepository.findById(childId)
-                .orElseThrow(() -> new IllegalArgumentException("Child not found"));
+        childAccessGuard.requireAccess(childId);
+        Child child = childRepository.getReferenceById(childId);
 
         Meal meal = new Meal();
         meal.setTitle(title);
@@ -44,6 +49,7 @@ public class MealService {
                              String title,
                              List<String> ingredients,
                              String recipe) {
+        childAccessGuard.requireAccess(childId);
         Meal meal = mealRepository.findById(mealId)
                 .orElseThrow(() -> new IllegalArgumentException("Meal not found"));
         if (!meal.getChild().getId().equals(childId)) {
@@ -56,6 +62,7 @@ public class MealService {
     }
 
     public void deleteForChild(Long childId, Long mealId) {
+        childAccessGuard.requireAccess(childId);
         Meal meal = mealRepository.findById(mealId)
                 .orElseThrow(() -> new IllegalArgumentException("Meal not found"));
         if (!meal.getChild().getId().equals(childId)) {
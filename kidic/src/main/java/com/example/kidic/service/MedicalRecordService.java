@@ -1,6 +1,8 @@
 package com.example.kidic.service;
 
+import com.example.kidic.config.ChildAccessGuard;
 import com.example.kidic.config.JwtService;
+import com.example.kidic.dto.MedicalRecordFileDTO;
 import com.example.kidic.dto.MedicalRecordRequestDTO;
 import com.example.kidic.dto.MedicalRecordResponseDTO;
 import com.example.kidic.dto.MedicalRecordWithFileRequestDTO;
@@ -10,12 +12,13 @@ import com.example.kidic.repository.ChildRepository;
 import com.example.kidic.repository.MedicalRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -30,9 +33,18 @@ public class MedicalRecordService {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+    
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private BlobStore blobStore;
+    
+    @Autowired
+    private DatabaseBlobReader databaseBlobReader;
+    
     /**
      * Add a new medical record for a specific child
      */
@@ -96,12 +108,13 @@ public class MedicalRecordService {
         
         // Handle file upload if file is provided
         if (request.getFile() != null && !request.getFile().isEmpty()) {
-            FileStorageService.FileStorageResult fileResult = fileStorageService.processFileForDatabase(request.getFile());
+            FileStorageService.FileStorageResult fileResult = fileStorageService.storeFile(request.getFile());
             medicalRecord.setFileType(fileResult.getFileType());
             medicalRecord.setFileName(fileResult.getOriginalFileName());
-            medicalRecord.setFileContent(fileResult.getFileContent());
+            medicalRecord.setFileHash(fileResult.getContentHash());
             medicalRecord.setFileSize(fileResult.getFileSize());
             medicalRecord.setFileContentType(fileResult.getContentType());
+            medicalRecord.setFileUploadedAt(fileResult.getUploadedAt());
         }
         
         MedicalRecord savedRecord = medicalRecordRepository.save(medicalRecord);
@@ -133,13 +146,14 @@ public class MedicalRecordService {
         
         // Handle file upload if new file is provided
         if (request.getFile() != null && !request.getFile().isEmpty()) {
-            // Process new file for database storage
-            FileStorageService.FileStorageResult fileResult = fileStorageService.processFileForDatabase(request.getFile());
+            // Store new file in the blob store
+            FileStorageService.FileStorageResult fileResult = fileStorageService.storeFile(request.getFile());
             medicalRecord.setFileType(fileResult.getFileType());
             medicalRecord.setFileName(fileResult.getOriginalFileName());
-            medicalRecord.setFileContent(fileResult.getFileContent());
+            medicalRecord.setFileHash(fileResult.getContentHash());
             medicalRecord.setFileSize(fileResult.getFileSize());
             medicalRecord.setFileContentType(fileResult.getContentType());
+            medicalRecord.setFileUploadedAt(fileResult.getUploadedAt());
         }
         
         MedicalRecord updatedRecord = medicalRecordRepository.save(medicalRecord);
@@ -161,7 +175,7 @@ public class MedicalRecordService {
             throw new IllegalArgumentException("Medical record does not belong to the specified child");
         }
         
-        // File content will be automatically deleted when the record is deleted from database
+        // The blob itself is content-addressed and may be shared with other records, so it is kept
         
         medicalRecordRepository.delete(medicalRecord);
     }
@@ -171,12 +185,12 @@ public class MedicalRecordService {
      */
     public List<MedicalRecordResponseDTO> getMedicalRecordsForChild(Long childId, String token) {
         // Validate that the child belongs to the family of the authenticated user
-        Child child = validateChildAccess(childId, token);
+        validateChildAccess(childId, token);
         
-        List<MedicalRecord> records = medicalRecordRepository.findByChild(child);
-        return records.stream()
-                .map(this::toResponseDTO)
-                .collect(Collectors.toList());
+        // Metadata-only projection: the file_content column is never selected
+        List<MedicalRecordResponseDTO> records = medicalRecordRepository.findSummariesByChildId(childId);
+        records.forEach(MedicalRecordService::setDownloadUrl);
+        return records;
     }
     
     /**
@@ -186,39 +200,61 @@ public class MedicalRecordService {
         // Validate that the child belongs to the family of the authenticated user
         validateChildAccess(childId, token);
         
-        MedicalRecord medicalRecord = medicalRecordRepository.findById(recordId)
+        MedicalRecordResponseDTO medicalRecord = medicalRecordRepository.findSummaryById(recordId)
                 .orElseThrow(() -> new IllegalArgumentException("Medical record not found"));
         
         // Validate that the record belongs to the specified child
-        if (!medicalRecord.getChild().getId().equals(childId)) {
+        if (!medicalRecord.getChildId().equals(childId)) {
             throw new IllegalArgumentException("Medical record does not belong to the specified child");
         }
         
-        return toResponseDTO(medicalRecord);
+        setDownloadUrl(medicalRecord);
+        return medicalRecord;
     }
     
     /**
-     * Validate that the child belongs to the family of the authenticated user
+     * Get the attachment metadata of a medical record without loading its content
      */
-    private Child validateChildAccess(Long childId, String token) {
-        UUID familyId = jwtService.extractFamilyId(token);
-        
-        if (familyId == null) {
-            throw new IllegalArgumentException("User does not belong to any family");
-        }
+    @Transactional(readOnly = true)
+    public MedicalRecordFileDTO getMedicalRecordFile(Long childId, Long recordId, String token) {
+        // Validate that the child belongs to the family of the authenticated user
+        validateChildAccess(childId, token);
         
-        Child child = childRepository.findById(childId)
-                .orElseThrow(() -> new IllegalArgumentException("Child not found"));
+        MedicalRecordFileDTO file = medicalRecordRepository.findFileById(recordId)
+                .orElseThrow(() -> new IllegalArgumentException("Medical record not found"));
         
-        if (!child.getFamily().getId().equals(familyId)) {
-            throw new IllegalArgumentException("Child does not belong to your family");
+        // Validate that the record belongs to the specified child
+        if (!file.getChildId().equals(childId)) {
+            throw new IllegalArgumentException("Medical record does not belong to the specified child");
         }
         
-        return child;
+        return file;
     }
     
     /**
-     * Convert MedicalRecord entity to MedicalRecordResponseDTO
+     * Stream a byte range of a medical record attachment to the given output stream
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeMedicalRecordFile(MedicalRecordFileDTO file, long offset, long length, OutputStream out) throws IOException {
+        if (file.getFileHash() != null) {
+            blobStore.copyRange(file.getFileHash(), offset, length, out);
+        } else {
+            // Not yet moved out of the database by the BlobMigrationJob
+            databaseBlobReader.copyRange(DatabaseBlobReader.BlobColumn.MEDICAL_RECORD_FILE, file.getId(), offset, length, out);
+        }
+    }
+    
+    /**
+     * Validate that the child belongs to the family of the authenticated user
+     */
+    private Child validateChildAccess(Long childId, String token) {
+        childAccessGuard.requireAccess(jwtService.extractFamilyId(token), childId);
+        // The membership check proved the row exists, so a proxy is enough to link records to it
+        return childRepository.getReferenceById(childId);
+    }
+    
+    /**
+     * Convert MedicalRecord entity to MedicalRecordResponseDTO (file content is only reachable via the download endpoint)
      */
     private MedicalRecordResponseDTO toResponseDTO(MedicalRecord medicalRecord) {
         MedicalRecordResponseDTO dto = MedicalRecordResponseDTO.builder()
@@ -235,9 +271,13 @@ public class MedicalRecordService {
                 .childName(medicalRecord.getChild().getName())
                 .build();
         
-        // Manually set file content since Lombok builder might not handle byte[] properly
-        dto.setFileContent(medicalRecord.getFileContent());
-        
+        setDownloadUrl(dto);
         return dto;
     }
+    
+    static void setDownloadUrl(MedicalRecordResponseDTO dto) {
+        if (dto.getFileSize() != null) {
+            dto.setDownloadUrl("/api/medical-records/children/" + dto.getChildId() + "/" + dto.getId() + "/file");
+        }
+    }
 }
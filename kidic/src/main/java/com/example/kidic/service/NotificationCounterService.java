@@ -0,0 +1,108 @@
+package com.example.kidic.service;
+
+import com.example.kidic.entity.BroadcastCounter;
+import com.example.kidic.entity.NotificationCounter;
+import com.example.kidic.repository.BroadcastCounterRepository;
+import com.example.kidic.repository.BroadcastNotificationReadRepository;
+import com.example.kidic.repository.BroadcastNotificationRepository;
+import com.example.kidic.repository.NotificationCounterRepository;
+import com.example.kidic.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the per-parent unread counters and the total number of broadcasts. Callers update
+ * them in the same transaction as the notification change; a missing counter row is rebuilt
+ * from the tables on first use.
+ */
+@Service
+public class NotificationCounterService {
+    @Autowired
+    private NotificationCounterRepository notificationCounterRepository;
+    @Autowired
+    private BroadcastCounterRepository broadcastCounterRepository;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private BroadcastNotificationRepository broadcastNotificationRepository;
+    @Autowired
+    private BroadcastNotificationReadRepository broadcastNotificationReadRepository;
+
+    /**
+     * Add {@code delta} (negative when notifications are read) to the parent's unread personal notifications
+     */
+    @Transactional
+    public void addUnread(Long parentId, long delta) {
+        if (notificationCounterRepository.addUnread(parentId, delta) == 0) {
+            initialize(parentId, delta, 0);
+            notificationCounterRepository.addUnread(parentId, delta);
+        }
+    }
+
+    @Transactional
+    public void addBroadcastsRead(Long parentId, long delta) {
+        if (notificationCounterRepository.addBroadcastsRead(parentId, delta) == 0) {
+            initialize(parentId, 0, delta);
+            notificationCounterRepository.addBroadcastsRead(parentId, delta);
+        }
+    }
+
+    /**
+     * Count a broadcast created in the current transaction
+     */
+    @Transactional
+    public void addBroadcast() {
+        if (broadcastCounterRepository.addBroadcasts(BroadcastCounter.ID, 1) == 0) {
+            initializeBroadcasts(1);
+            broadcastCounterRepository.addBroadcasts(BroadcastCounter.ID, 1);
+        }
+    }
+
+    /**
+     * Lock the parent's counter row, creating it first if needed, until the transaction ends
+     */
+    @Transactional
+    public void lock(Long parentId) {
+        if (notificationCounterRepository.findForUpdate(parentId).isEmpty()) {
+            initialize(parentId, 0, 0);
+            notificationCounterRepository.findForUpdate(parentId).orElseThrow();
+        }
+    }
+
+    /**
+     * Unread personal notifications plus broadcasts the parent has not read yet
+     */
+    @Transactional
+    public long getUnreadCount(Long parentId) {
+        NotificationCounter counter = notificationCounterRepository.findById(parentId)
+                .orElseGet(() -> initialize(parentId, 0, 0));
+        long broadcasts = broadcastCounterRepository.findById(BroadcastCounter.ID)
+                .map(BroadcastCounter::getBroadcastCount)
+                .orElseGet(() -> initializeBroadcasts(0));
+        return counter.getUnreadCount() + broadcasts - counter.getBroadcastsRead();
+    }
+
+    /*
+     * Creating a missing row does not rely on the insert's row count, which MySQL reports as 1
+     * for a duplicate as well. The row is created without the caller's pending delta, which the
+     * caller then applies with an UPDATE whether this insert or a concurrent one created the row.
+     * The counts already include the changes made earlier in the current transaction, so the
+     * delta is subtracted from them. Returns the counter as the current transaction sees it.
+     */
+    private NotificationCounter initialize(Long parentId, long unreadDelta, long broadcastsReadDelta) {
+        NotificationCounter counter = new NotificationCounter(
+                parentId,
+                notificationRepository.countByParentIdAndIsReadFalse(parentId),
+                broadcastNotificationReadRepository.countByParentId(parentId));
+        notificationCounterRepository.insertIfAbsent(parentId, counter.getUnreadCount() - unreadDelta,
+                counter.getBroadcastsRead() - broadcastsReadDelta);
+        return counter;
+    }
+
+    private long initializeBroadcasts(long delta) {
+        long broadcasts = broadcastNotificationRepository.count();
+        broadcastCounterRepository.insertIfAbsent(BroadcastCounter.ID, broadcasts - delta);
+        return broadcasts;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.kidic.service;
+
+import com.example.kidic.dto.NotificationResponseDTO;
+import com.example.kidic.dto.UnreadCountDTO;
+import com.example.kidic.entity.OutboxMessage;
+import com.example.kidic.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Records WebSocket messages in the caller's transaction instead of sending them, so a
+ * rollback sends nothing and the transaction never waits on delivery.
+ */
+@Service
+public class NotificationOutbox {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Published for every enqueued message; the dispatcher picks it up after commit
+     */
+    public record MessageEnqueued(Long id) {
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueFamilyNotification(UUID familyId, NotificationResponseDTO notification) {
+        enqueue(OutboxMessage.Kind.FAMILY_NOTIFICATION, familyId.toString(), notification);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueBroadcastNotification(NotificationResponseDTO notification) {
+        enqueue(OutboxMessage.Kind.BROADCAST_NOTIFICATION, null, notification);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueUnreadCount(Long parentId, UnreadCountDTO unreadCount) {
+        enqueue(OutboxMessage.Kind.UNREAD_COUNT, String.valueOf(parentId), unreadCount);
+    }
+
+    private void enqueue(OutboxMessage.Kind kind, String target, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + kind + " message", e);
+        }
+        OutboxMessage message = outboxMessageRepository.save(new OutboxMessage(kind, target, json));
+        eventPublisher.publishEvent(new MessageEnqueued(message.getId()));
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.kidic.service;
+
+import com.example.kidic.dto.NotificationResponseDTO;
+import com.example.kidic.dto.UnreadCountDTO;
+import com.example.kidic.entity.OutboxMessage;
+import com.example.kidic.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers {@link OutboxMessage}s on a background thread, in batches and in insertion order.
+ * A run is started right after a transaction that enqueued messages commits, and by a poll that
+ * picks up retries and messages left behind by a restart. A message is deleted in the same
+ * transaction that sent it, so it is delivered again only if the node dies in between.
+ */
+@Component
+public class NotificationOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+    @Autowired
+    private NotificationPusher notificationPusher;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${kidic.notifications.outbox.batch-size:100}")
+    private int batchSize;
+    @Value("${kidic.notifications.outbox.max-attempts:10}")
+    private int maxAttempts;
+    // Doubles with every failed attempt, up to max-backoff-ms
+    @Value("${kidic.notifications.outbox.backoff-ms:1000}")
+    private long backoffMs;
+    @Value("${kidic.notifications.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    private final AtomicBoolean runQueued = new AtomicBoolean();
+    private ExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+    private Counter deliveredCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            deliveredCounter = Counter.builder("kidic.notifications.outbox.delivered")
+                    .description("Outbox messages sent to the broker")
+                    .register(registry);
+            retriedCounter = Counter.builder("kidic.notifications.outbox.retried")
+                    .description("Failed deliveries that will be attempted again")
+                    .register(registry);
+            failedCounter = Counter.builder("kidic.notifications.outbox.failed")
+                    .description("Outbox messages given up on after the maximum number of attempts")
+                    .register(registry);
+            Gauge.builder("kidic.notifications.outbox.pending", outboxMessageRepository,
+                            repository -> repository.countByStatus(OutboxMessage.Status.PENDING))
+                    .description("Outbox messages waiting to be delivered")
+                    .register(registry);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener
+    public void onMessageEnqueued(NotificationOutbox.MessageEnqueued event) {
+        wakeUp();
+    }
+
+    @Scheduled(initialDelayString = "${kidic.notifications.outbox.initial-delay-ms:10000}",
+            fixedDelayString = "${kidic.notifications.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    // Many commits in a row start one run; a commit during a run starts one more after it
+    private void wakeUp() {
+        if (runQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                runQueued.set(false);
+                try {
+                    dispatchPending();
+                } catch (RuntimeException e) {
+                    log.error("Outbox dispatch failed", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Deliver every due message and return the number delivered
+     */
+    public int dispatchPending() {
+        int delivered = 0;
+        int[] batch;
+        do {
+            batch = transactionTemplate.execute(status -> dispatchBatch());
+            delivered += batch[0];
+        } while (batch[1] == batchSize);
+        return delivered;
+    }
+
+    // Returns {delivered, messages read}
+    private int[] dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> due = outboxMessageRepository.findDue(now, PageRequest.of(0, batchSize));
+        List<OutboxMessage> delivered = new ArrayList<>(due.size());
+        for (OutboxMessage message : due) {
+            try {
+                deliver(message);
+                delivered.add(message);
+            } catch (IOException | RuntimeException e) {
+                reschedule(message, now, e);
+            }
+        }
+        outboxMessageRepository.deleteAllInBatch(delivered);
+        if (deliveredCounter != null) {
+            deliveredCounter.increment(delivered.size());
+        }
+        return new int[]{delivered.size(), due.size()};
+    }
+
+    private void deliver(OutboxMessage message) throws IOException {
+        switch (message.getKind()) {
+            case FAMILY_NOTIFICATION -> notificationPusher.publishToFamily(UUID.fromString(message.getTarget()),
+                    objectMapper.readValue(message.getPayload(), NotificationResponseDTO.class));
+            case BROADCAST_NOTIFICATION -> notificationPusher.publishBroadcast(
+                    objectMapper.readValue(message.getPayload(), NotificationResponseDTO.class));
+            case UNREAD_COUNT -> notificationPusher.sendUnreadCount(Long.valueOf(message.getTarget()),
+                    objectMapper.readValue(message.getPayload(), UnreadCountDTO.class));
+        }
+    }
+
+    private void reschedule(OutboxMessage message, LocalDateTime now, Exception cause) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            message.setStatus(OutboxMessage.Status.FAILED);
+            log.error("Giving up on outbox message {} after {} attempts", message.getId(), attempts, cause);
+            if (failedCounter != null) {
+                failedCounter.increment();
+            }
+            return;
+        }
+        long delay = Math.min(backoffMs << Math.min(attempts - 1, 20), maxBackoffMs);
+        message.setNextAttemptAt(now.plusNanos(delay * 1_000_000));
+        log.warn("Outbox message {} failed (attempt {}), retrying in {} ms", message.getId(), attempts, delay, cause);
+        if (retriedCounter != null) {
+            retriedCounter.increment();
+        }
+    }
+}
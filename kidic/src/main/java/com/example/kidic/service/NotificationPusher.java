@@ -0,0 +1,41 @@
+package com.example.kidic.service;
+
+import com.example.kidic.config.StompAuthChannelInterceptor;
+import com.example.kidic.dto.UnreadCountDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Sends notification events to connected clients. Every send is called from the outbox
+ * dispatcher, so failures are thrown for the outbox to retry them.
+ */
+@Service
+public class NotificationPusher {
+
+    public static final String DESTINATION = "/queue/notifications";
+    public static final String BROADCAST_TOPIC = "/topic/broadcasts";
+
+    @Autowired
+    private SimpMessageSendingOperations messagingTemplate;
+
+    public void sendUnreadCount(Long parentId, UnreadCountDTO unreadCount) {
+        messagingTemplate.convertAndSendToUser(String.valueOf(parentId), DESTINATION, unreadCount);
+    }
+
+    /**
+     * One publish reaches every connected member of the family
+     */
+    public void publishToFamily(UUID familyId, Object payload) {
+        messagingTemplate.convertAndSend(StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX + familyId, payload);
+    }
+
+    /**
+     * Every connected client subscribes to the same topic, so this is one message
+     */
+    public void publishBroadcast(Object payload) {
+        messagingTemplate.convertAndSend(BROADCAST_TOPIC, payload);
+    }
+}
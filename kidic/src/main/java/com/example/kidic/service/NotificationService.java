@@ -1,14 +1,29 @@
 package com.example.kidic.service;
+import com.example.kidic.dto.MarkNotificationsReadRequestDTO;
+import com.example.kidic.dto.NotificationFeedPageDTO;
+import com.example.kidic.dto.NotificationResponseDTO;
+import com.example.kidic.dto.UnreadCountDTO;
+import com.example.kidic.entity.BroadcastNotification;
+import com.example.kidic.entity.BroadcastNotificationRead;
 import com.example.kidic.entity.Family;
 import com.example.kidic.entity.Notification;
 import com.example.kidic.entity.Parent;
+import com.example.kidic.repository.BroadcastNotificationReadRepository;
+import com.example.kidic.repository.BroadcastNotificationRepository;
 import com.example.kidic.repository.FamilyRepository;
 import com.example.kidic.repository.NotificationRepository;
 import com.example.kidic.repository.ParentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,9 +34,27 @@ public class NotificationService {
     @Autowired
     private ParentRepository parentRepository;
     @Autowired
-    private SimpMessageSendingOperations messagingTemplate;
-    @Autowired
     private FamilyRepository familyRepository;
+    @Autowired
+    private BroadcastNotificationRepository broadcastNotificationRepository;
+    @Autowired
+    private BroadcastNotificationReadRepository broadcastNotificationReadRepository;
+    @Autowired
+    private NotificationCounterService notificationCounterService;
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Feed order: newest first, personal before broadcast at the same instant, then by id.
+     * Matches the ORDER BY of the feed queries, which sort each source the same way.
+     */
+    private static final Comparator<NotificationResponseDTO> NEWEST_FIRST =
+            Comparator.comparing(NotificationResponseDTO::getCreatedAt).reversed()
+                    .thenComparing(NotificationResponseDTO::isBroadcast)
+                    .thenComparing(NotificationResponseDTO::getId, Comparator.reverseOrder());
 
 
     @Transactional
@@ -29,21 +62,23 @@ public class NotificationService {
         Family family = familyRepository.findById(familyId)
                 .orElseThrow(()-> new RuntimeException("family not found"));
         List<Parent> parents = family.getParents();
+        LocalDateTime createdAt = LocalDateTime.now();
         for (Parent parent : parents) {
             Notification notification = new Notification();
             notification.setParentId(parent.getId());
             notification.setContent(message);
             notification.setType(type);
+            notification.setCreatedAt(createdAt);
             notificationRepository.save(notification);
-            messagingTemplate.convertAndSendToUser(
-                    String.valueOf(parent.getId()),
-                    "/queue/notifications",
-                    notification
-            );
+            notificationCounterService.addUnread(parent.getId(), 1);
         }
+        // One publish to the family topic instead of one send per parent; each parent's
+        // own copy (with its id) is in their feed. Sent after commit by the outbox dispatcher.
+        notificationOutbox.enqueueFamilyNotification(familyId,
+                new NotificationResponseDTO(null, type, message, false, createdAt, false));
     }
 
-    public List<Notification> getUserNotifications(Long parentId,UUID familyId) {
+    public List<NotificationResponseDTO> getUserNotifications(Long parentId,UUID familyId) {
         Parent parent = parentRepository.findById(parentId)
                 .orElseThrow(()-> new RuntimeException("parent not found"));
         System.out.println(familyId);
@@ -51,38 +86,176 @@ public class NotificationService {
         if (!parent.getFamily().getId().equals(familyId)) {
             throw new RuntimeException("parent not found in the current family");
         }
-        return notificationRepository.findByParentIdOrderByCreatedAtDesc(parentId);
+        return merge(notificationRepository.findFeedByParentId(parentId),
+                broadcastNotificationRepository.findFeedForParent(parentId));
     }
 
     @Transactional
     public void markAsRead(Long id) {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
+        if (Boolean.TRUE.equals(notification.getIsRead())) {
+            return;
+        }
         notification.setIsRead(true);
         notificationRepository.save(notification);
+        notificationCounterService.addUnread(notification.getParentId(), -1);
     }
 
-    public void createBroadcastNotificationsForAllUsers(String message, Notification.NotificationType type) {
-        List<Parent> parents = parentRepository.findAll();
+    public List<NotificationResponseDTO> getUnreadNotifications(Long parentId) {
+        return merge(notificationRepository.findUnreadFeedByParentId(parentId),
+                broadcastNotificationRepository.findUnreadForParent(parentId));
+    }
 
-        for (Parent parent : parents) {
-            Notification notification = new Notification();
-            notification.setParentId(parent.getId());
-            notification.setContent(message);
-            notification.setType(type);
-            notificationRepository.save(notification);
+    /**
+     * Store one notification for every parent; read state is tracked per parent only once they read it
+     */
+    @Transactional
+    public NotificationResponseDTO createBroadcastNotification(String message, Notification.NotificationType type) {
+        BroadcastNotification broadcast = new BroadcastNotification();
+        broadcast.setContent(message);
+        broadcast.setType(type);
+        broadcast = broadcastNotificationRepository.save(broadcast);
+        notificationCounterService.addBroadcast();
+
+        NotificationResponseDTO dto = new NotificationResponseDTO(broadcast.getId(), broadcast.getType(),
+                broadcast.getContent(), false, broadcast.getCreatedAt(), true);
+        notificationOutbox.enqueueBroadcastNotification(dto);
+        return dto;
+    }
 
-            // Send via WebSocket to each user
-            messagingTemplate.convertAndSendToUser(
-                    String.valueOf(parent.getId()),
-                    "/queue/notifications",
-                    notification
-            );
+    @Transactional
+    public void markBroadcastAsRead(Long broadcastId, Long parentId) {
+        if (!broadcastNotificationRepository.existsById(broadcastId)) {
+            throw new RuntimeException("Notification not found");
+        }
+        // Reads of one parent wait for each other on the counter row, and the locking read below
+        // sees a read committed meanwhile, so a repeated or concurrent read is counted once
+        notificationCounterService.lock(parentId);
+        if (broadcastNotificationReadRepository.findForUpdate(broadcastId, parentId).isPresent()) {
+            return;
         }
+        broadcastNotificationReadRepository.save(new BroadcastNotificationRead(broadcastId, parentId));
+        notificationCounterService.addBroadcastsRead(parentId, 1);
     }
 
+    /**
+     * Mark the parent's notifications as read with one UPDATE per selector, then queue the new
+     * unread count for the parent's clients. Notifications of other parents are never touched.
+     */
+    @Transactional
+    public UnreadCountDTO markAsRead(Long parentId, MarkNotificationsReadRequestDTO request) {
+        if (request.getUpToId() == null && (request.getIds() == null || request.getIds().isEmpty())
+                && request.getUpToBroadcastId() == null) {
+            throw new IllegalArgumentException("Nothing to mark as read");
+        }
 
-    public List<Notification> getUnreadNotifications(Long parentId) {
-        return notificationRepository.findByUserIdAndIsRead(parentId,false);
+        int personalRead = 0;
+        if (request.getUpToId() != null) {
+            personalRead += notificationRepository.markReadUpTo(parentId, request.getUpToId());
+        }
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            personalRead += notificationRepository.markReadByIds(parentId, request.getIds());
+        }
+        if (personalRead > 0) {
+            notificationCounterService.addUnread(parentId, -personalRead);
+        }
+        if (request.getUpToBroadcastId() != null) {
+            notificationCounterService.lock(parentId);
+            int broadcastsRead = broadcastNotificationReadRepository.markReadUpTo(
+                    parentId, request.getUpToBroadcastId(), LocalDateTime.now());
+            if (broadcastsRead > 0) {
+                notificationCounterService.addBroadcastsRead(parentId, broadcastsRead);
+            }
+        }
+
+        UnreadCountDTO unread = new UnreadCountDTO(notificationCounterService.getUnreadCount(parentId));
+        notificationOutbox.enqueueUnreadCount(parentId, unread);
+        return unread;
+    }
+
+    public long getUnreadCount(Long parentId) {
+        return notificationCounterService.getUnreadCount(parentId);
+    }
+
+    /**
+     * One page of the parent's personal and broadcast notifications, newest first.
+     * {@code cursor} is the {@code nextCursor} of the previous page, or null for the first page.
+     */
+    @Transactional
+    public NotificationFeedPageDTO getFeedPage(Long parentId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // One extra row per source tells whether another page exists
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<NotificationResponseDTO> personal;
+        List<NotificationResponseDTO> broadcasts;
+        if (cursor == null || cursor.isBlank()) {
+            personal = notificationRepository.findFeedPage(parentId, pageable);
+            broadcasts = broadcastNotificationRepository.findFeedPageForParent(parentId, pageable);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            // At the cursor's instant personal entries come first, so a broadcast cursor skips all of them
+            // and a personal cursor keeps all broadcasts
+            personal = notificationRepository.findFeedPageBefore(parentId, after.createdAt(),
+                    after.broadcast() ? Long.MIN_VALUE : after.id(), pageable);
+            broadcasts = broadcastNotificationRepository.findFeedPageForParentBefore(parentId, after.createdAt(),
+                    after.broadcast() ? after.id() : Long.MAX_VALUE, pageable);
+        }
+
+        List<NotificationResponseDTO> feed = merge(personal, broadcasts);
+        String nextCursor = null;
+        if (feed.size() > pageSize) {
+            feed = new ArrayList<>(feed.subList(0, pageSize));
+            nextCursor = FeedCursor.of(feed.get(pageSize - 1)).encode();
+        }
+        return NotificationFeedPageDTO.builder()
+                .items(feed)
+                .nextCursor(nextCursor)
+                .unreadCount(notificationCounterService.getUnreadCount(parentId))
+                .build();
+    }
+
+    /**
+     * Position in the merged feed, sent to clients as an opaque string
+     */
+    private record FeedCursor(LocalDateTime createdAt, boolean broadcast, Long id) {
+
+        static FeedCursor of(NotificationResponseDTO item) {
+            return new FeedCursor(item.getCreatedAt(), item.isBroadcast(), item.getId());
+        }
+
+        String encode() {
+            String raw = createdAt + "|" + (broadcast ? "B" : "P") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static FeedCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                if (parts.length != 3 || !(parts[1].equals("B") || parts[1].equals("P"))) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return new FeedCursor(LocalDateTime.parse(parts[0]), parts[1].equals("B"), Long.parseLong(parts[2]));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    // Both lists are already sorted newest first
+    private static List<NotificationResponseDTO> merge(List<NotificationResponseDTO> personal,
+                                                       List<NotificationResponseDTO> broadcasts) {
+        List<NotificationResponseDTO> feed = new ArrayList<>(personal.size() + broadcasts.size());
+        int i = 0, j = 0;
+        while (i < personal.size() || j < broadcasts.size()) {
+            if (j == broadcasts.size()
+                    || (i < personal.size() && NEWEST_FIRST.compare(personal.get(i), broadcasts.get(j)) <= 0)) {
+                feed.add(personal.get(i++));
+            } else {
+                feed.add(broadcasts.get(j++));
+            }
+        }
+        return feed;
     }
 }
@@ -1,20 +1,30 @@
 package com.example.kidic.service;
 
+import com.example.kidic.config.FamilyCache;
 import com.example.kidic.config.JwtService;
-import com.example.kidic.dto.ChildDetailsDTO;
+import com.example.kidic.config.ParentPrincipalCache;
 import com.example.kidic.dto.ParentDetailsDTO;
+import com.example.kidic.dto.ParentProfilePictureDTO;
 import com.example.kidic.dto.ParentResponseDTO;
 import com.example.kidic.dto.ParentUpdateRequestDTO;
-import com.example.kidic.entity.Child;
+import com.example.kidic.entity.ImageVariant;
 import com.example.kidic.entity.Parent;
-import com.example.kidic.repository.ChildRepository;
 import com.example.kidic.repository.ParentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.util.ArrayList;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,7 +35,19 @@ public class ParentService {
     @Autowired
     private JwtService jwtService;
     @Autowired
-    private ChildRepository childRepository;
+    private FamilyDashboardService familyDashboardService;
+    @Autowired
+    private BlobStore blobStore;
+    @Autowired
+    private ParentPrincipalCache parentPrincipalCache;
+    @Autowired
+    private FamilyCache familyCache;
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private DatabaseBlobReader databaseBlobReader;
+    @Autowired
+    private ImageVariantService imageVariantService;
 
     public ParentResponseDTO getParent(String token) {
         String email = jwtService.extractUsername(token);
@@ -45,12 +67,22 @@ public class ParentService {
         dto.setProfilePictureName(parent.getProfilePictureName());
         dto.setProfilePictureSize(parent.getProfilePictureSize());
         dto.setProfilePictureContentType(parent.getProfilePictureContentType());
+        if (parent.getProfilePictureSize() != null) {
+            String base = "/api/parent/" + parent.getId() + "/profile-picture";
+            if (parent.getProfilePictureHash() == null) {
+                dto.setProfilePictureUrl(base);
+            } else {
+                String version = ImageVariantService.version(parent.getProfilePictureHash());
+                dto.setProfilePictureUrl(base + "?v=" + version);
+                dto.setProfilePictureThumbnailUrl(base + "?size=" + ImageVariant.Size.THUMBNAIL.name().toLowerCase() + "&v=" + version);
+            }
+        }
         return dto;
     }
 
     public ParentResponseDTO updateParent(
             String token,
-            ParentUpdateRequestDTO dto) {
+            ParentUpdateRequestDTO dto) throws IOException {
         String email = jwtService.extractUsername(token);
         Parent parent = parentRepository.findByEmail(email)
                 .orElseThrow(()-> new RuntimeException("parent not found"));
@@ -60,51 +92,97 @@ public class ParentService {
         if (dto.getGender() != null) parent.setGender(dto.getGender());
         if (dto.getProfilePictureType() != null) parent.setProfilePictureType(dto.getProfilePictureType());
         if (dto.getProfilePictureName() != null) parent.setProfilePictureName(dto.getProfilePictureName());
-        if (dto.getProfilePictureContent() != null) parent.setProfilePictureContent(dto.getProfilePictureContent());
-        if (dto.getProfilePictureSize() != null) parent.setProfilePictureSize(dto.getProfilePictureSize());
+        if (dto.getProfilePictureContent() != null) {
+            parent.setProfilePictureHash(blobStore.put(new ByteArrayInputStream(dto.getProfilePictureContent())));
+            imageVariantService.createVariants(parent.getProfilePictureHash());
+            parent.setProfilePictureUploadedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+            // Reads are bounded by the stored size, so it comes from the content, never from the client
+            parent.setProfilePictureSize((long) dto.getProfilePictureContent().length);
+        }
         if (dto.getProfilePictureContentType() != null) parent.setProfilePictureContentType(dto.getProfilePictureContentType());
         Parent savedParent = parentRepository.save(parent);
+        parentPrincipalCache.evict(email);
+        evictFamily(savedParent);
         return mapToResponseDTO(savedParent);
     }
 
-    public ParentDetailsDTO getAllDetails(String token) {
+    /**
+     * Upload a profile picture for the parent owning the token
+     */
+    public ParentResponseDTO uploadProfilePicture(String token, MultipartFile file) throws IOException {
         String email = jwtService.extractUsername(token);
         Parent parent = parentRepository.findByEmail(email)
                 .orElseThrow(()-> new RuntimeException("parent not found"));
-        List<Child> children = childRepository.findByFamily(parent.getFamily());
-        return toParentDetailsDTO(parent, children);
+
+        if (file.getContentType() == null || !file.getContentType().startsWith("image/")) {
+            throw new IllegalArgumentException("Profile picture must be an image");
+        }
+        FileStorageService.FileStorageResult fileResult = fileStorageService.storeFile(file);
+        imageVariantService.createVariants(fileResult.getContentHash());
+        parent.setProfilePictureType(Parent.ProfilePictureType.CUSTOM);
+        parent.setProfilePictureName(fileResult.getOriginalFileName());
+        parent.setProfilePictureHash(fileResult.getContentHash());
+        parent.setProfilePictureSize(fileResult.getFileSize());
+        parent.setProfilePictureContentType(fileResult.getContentType());
+        parent.setProfilePictureUploadedAt(fileResult.getUploadedAt());
+        Parent savedParent = parentRepository.save(parent);
+        evictFamily(savedParent);
+        return mapToResponseDTO(savedParent);
     }
 
+    // The parent's summary is part of the cached family
+    private void evictFamily(Parent parent) {
+        if (parent.getFamily() != null) {
+            familyCache.evict(parent.getFamily().getId());
+        }
+    }
 
-    public static ParentDetailsDTO toParentDetailsDTO(Parent parent, List<Child> children) {
+    /**
+     * Profile picture metadata of a parent, visible to the parent and the members of their family
+     */
+    @Transactional(readOnly = true)
+    public ParentProfilePictureDTO getProfilePicture(Long parentId, String token) {
+        ParentProfilePictureDTO picture = parentRepository.findProfilePictureById(parentId)
+                .orElseThrow(() -> new IllegalArgumentException("Parent not found"));
+        UUID familyId = jwtService.extractFamilyId(token);
+        boolean sameFamily = familyId != null && familyId.equals(picture.getFamilyId());
+        if (!sameFamily && !Objects.equals(picture.getEmail(), jwtService.extractUsername(token))) {
+            throw new IllegalArgumentException("Access denied: parent does not belong to your family");
+        }
+        return picture;
+    }
 
-        List<ChildDetailsDTO> childrenDetailsDTO = new ArrayList<>();
-        for (Child child : children) {
-            ChildDetailsDTO childDetailsDTO = toChildDetailsDTO(child);
-            childrenDetailsDTO.add(childDetailsDTO);
+    /**
+     * Stream the profile picture to the given output stream
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeProfilePicture(ParentProfilePictureDTO picture, OutputStream out) throws IOException {
+        if (picture.getProfilePictureHash() != null) {
+            blobStore.copyRange(picture.getProfilePictureHash(), 0, picture.getProfilePictureSize(), out);
+        } else {
+            // Not yet moved out of the database by the BlobMigrationJob
+            databaseBlobReader.copyRange(DatabaseBlobReader.BlobColumn.PARENT_PROFILE_PICTURE, picture.getParentId(),
+                    0, picture.getProfilePictureSize(), out);
         }
-        return ParentDetailsDTO.builder()
-                .id(parent.getId())
-                .name(parent.getName())
-                .phone(parent.getPhone())
-                .email(parent.getEmail())
-                .gender(parent.getGender())
-                .familyId(parent.getFamily().getId())
-                .children(childrenDetailsDTO)
-                .build();
     }
 
-    public static ChildDetailsDTO toChildDetailsDTO(Child child) {
-        return ChildDetailsDTO.builder()
-                .id(child.getId())
-                .name(child.getName())
-                .gender(child.getGender())
-                .dateOfBirth(child.getDateOfBirth())
-                .medicalNotes(child.getMedicalNotes())
-                .medicalRecords(child.getMedicalRecords())
-                .growthRecords(child.getGrowthRecords())
-                .diseasesAndAllergies(child.getDiseasesAndAllergies())
-                .meals(child.getMeals())
-                .build();
+    /**
+     * Downscaled copy of the profile picture, if one was created
+     */
+    @Transactional(readOnly = true)
+    public Optional<ImageVariant> findProfilePictureVariant(ParentProfilePictureDTO picture, ImageVariant.Size size) {
+        return imageVariantService.findVariant(picture.getProfilePictureHash(), size);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeProfilePictureVariant(ImageVariant variant, OutputStream out) throws IOException {
+        imageVariantService.writeVariant(variant, out);
+    }
+
+    public ParentDetailsDTO getAllDetails(String token) {
+        String email = jwtService.extractUsername(token);
+        Parent parent = parentRepository.findByEmail(email)
+                .orElseThrow(()-> new RuntimeException("parent not found"));
+        return familyDashboardService.getDetails(parent);
     }
 }
@@ -1,13 +1,29 @@
 package com.example.kidic.service;
 
+import com.example.kidic.dto.ProductSummaryDTO;
+import com.example.kidic.entity.ImageVariant;
 import com.example.kidic.entity.Product;
 import com.example.kidic.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Transactional
@@ -19,6 +35,29 @@ public class ProductService {
     @Autowired
     private FileStorageService fileStorageService;
     
+    @Autowired
+    private BlobStore blobStore;
+    
+    @Autowired
+    private DatabaseBlobReader databaseBlobReader;
+    
+    @Autowired
+    private ImageVariantService imageVariantService;
+    
+    // Bounds how long an edit made on another node stays invisible here
+    @Value("${kidic.products.catalog-ttl:60s}")
+    private Duration catalogTtl;
+    
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private volatile Catalog catalog;
+    
+    /**
+     * Immutable snapshot of the product list. The ETag is a digest of the content,
+     * so it is the same on every node and across restarts.
+     */
+    public record Catalog(List<ProductSummaryDTO> products, String eTag, long generation, Instant builtAt) {
+    }
+    
     /**
      * Create a new product (without file upload)
      */
@@ -28,6 +67,7 @@ public class ProductService {
                                  Product.ImageType imageType,
                                  Product.CategoryType category) {
         Product product = new Product(name, link, description, imageType, category);
+        catalogChanged();
         return productRepository.save(product);
     }
     
@@ -47,6 +87,7 @@ public class ProductService {
         if (description != null) product.setDescription(description);
         if (imageType != null) product.setImageType(imageType);
         if (category != null) product.setCategory(category);
+        catalogChanged();
         return productRepository.save(product);
     }
     
@@ -58,13 +99,60 @@ public class ProductService {
             throw new IllegalArgumentException("Product not found");
         }
         productRepository.deleteById(productId);
+        catalogChanged();
     }
     
     /**
-     * List all products
+     * The current catalog snapshot, rebuilt with one query after a change or once the TTL has passed
      */
-    public java.util.List<Product> listProducts() {
-        return productRepository.findAll();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Catalog getCatalog() {
+        Catalog current = catalog;
+        if (isCurrent(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = catalog;
+            if (!isCurrent(current)) {
+                // Read the generation first, so a change committed during the query triggers another rebuild
+                long generation = catalogGeneration.get();
+                List<ProductSummaryDTO> products = List.copyOf(productRepository.findCatalog());
+                current = new Catalog(products, eTagOf(products), generation, Instant.now());
+                catalog = current;
+            }
+            return current;
+        }
+    }
+    
+    private boolean isCurrent(Catalog current) {
+        return current != null
+                && current.generation() == catalogGeneration.get()
+                && current.builtAt().plus(catalogTtl).isAfter(Instant.now());
+    }
+    
+    private static String eTagOf(List<ProductSummaryDTO> products) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (ProductSummaryDTO product : products) {
+                digest.update(product.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // Invalidates the snapshot now and again after commit, so a rebuild that read the old rows is not kept
+    private void catalogChanged() {
+        catalogGeneration.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogGeneration.incrementAndGet();
+                }
+            });
+        }
     }
     
     /**
@@ -74,16 +162,19 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
         
-        // Process file for database storage
-        FileStorageService.FileStorageResult fileResult = fileStorageService.processFileForDatabase(file);
+        // Store file in the blob store, with the downscaled copies used by list tiles
+        FileStorageService.FileStorageResult fileResult = fileStorageService.storeFile(file);
+        imageVariantService.createVariants(fileResult.getContentHash());
         
         // Update product with file information
         product.setImageType(Product.ImageType.CUSTOM);
         product.setImageName(fileResult.getOriginalFileName());
-        product.setImageContent(fileResult.getFileContent());
+        product.setImageHash(fileResult.getContentHash());
         product.setImageSize(fileResult.getFileSize());
         product.setImageContentType(fileResult.getContentType());
+        product.setImageUploadedAt(fileResult.getUploadedAt());
         
+        catalogChanged();
         return productRepository.save(product);
     }
     
@@ -95,6 +186,32 @@ public class ProductService {
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
     }
     
+    /**
+     * Stream the product image to the given output stream
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeProductImage(Product product, OutputStream out) throws IOException {
+        if (product.getImageHash() != null) {
+            blobStore.copyRange(product.getImageHash(), 0, product.getImageSize(), out);
+        } else {
+            // Not yet moved out of the database by the BlobMigrationJob
+            databaseBlobReader.copyRange(DatabaseBlobReader.BlobColumn.PRODUCT_IMAGE, product.getId(), 0, product.getImageSize(), out);
+        }
+    }
+    
+    /**
+     * Downscaled copy of the product image, if one was created
+     */
+    @Transactional(readOnly = true)
+    public Optional<ImageVariant> findImageVariant(Product product, ImageVariant.Size size) {
+        return imageVariantService.findVariant(product.getImageHash(), size);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeImageVariant(ImageVariant variant, OutputStream out) throws IOException {
+        imageVariantService.writeVariant(variant, out);
+    }
+    
     /**
      * Delete product image
      */
@@ -105,10 +222,12 @@ public class ProductService {
         // Clear file information
         product.setImageType(Product.ImageType.IMAGE_1); // Default to first image
         product.setImageName(null);
-        product.setImageContent(null);
+        product.setImageHash(null);
         product.setImageSize(null);
         product.setImageContentType(null);
+        product.setImageUploadedAt(null);
         
+        catalogChanged();
         return productRepository.save(product);
     }
 }
@@ -204,4 +204,4 @@ CREATE INDEX idx_notifications_family_id ON notifications(family_id);
 CREATE INDEX idx_ai_infos_product_id ON ai_infos(product_id);
 CREATE INDEX idx_medical_records_child_id ON medical_records(child_id);
 CREATE INDEX idx_diseases_allergies_child_id ON diseases_and_allergies(child_id);
-CREATE INDEX idx_growth_records_child_id ON growth_records(child_id);
+CREATE INDEX idx_growth_records_child_date ON growth_records(child_id, date_of_record);
@@ -0,0 +1,111 @@
+package com.example.kidic.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String EMAIL = "john@example.com";
+    private static final Key SIGN_IN_KEY = Keys.hmacShaKeyFor(
+            Decoders.BASE64.decode("4f714a748e4ba9ead2c9af8447bcb33f7ed0cb1043ca08ac0254a4fa313d51bb"));
+    private static final Key OTHER_KEY = Keys.hmacShaKeyFor(
+            Decoders.BASE64.decode("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef"));
+
+    private final JwtService jwtService = new JwtService();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private String validToken() {
+        return jwtService.generateToken(Map.of("parent_id", 7L), User.withUsername(EMAIL).password("secret").build());
+    }
+
+    private static String token(Key key, String subject, long expiresInMillis) {
+        return Jwts.builder()
+                .claim("parent_id", 7L)
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Test
+    void testExtractClaims_ValidToken() {
+        // Positive case: Claims are read from a token signed with the service key
+        String token = validToken();
+
+        assertEquals(EMAIL, jwtService.extractUsername(token));
+        assertEquals(7L, jwtService.extractParentId(token));
+        assertSame(jwtService.extractClaims(token), jwtService.extractClaims(token), "A verified token should be cached");
+    }
+
+    @Test
+    void testExtractClaims_ForgedTokenAfterValidOneCached() {
+        // Negative case: Caching a valid token does not let a token with another signature through
+        String valid = validToken();
+        jwtService.extractClaims(valid);
+
+        String payload = valid.substring(0, valid.lastIndexOf('.'));
+        String forgedSignature = token(OTHER_KEY, EMAIL, 60_000);
+        String forged = payload + forgedSignature.substring(forgedSignature.lastIndexOf('.'));
+
+        assertThrows(JwtException.class, () -> jwtService.extractClaims(forged));
+        assertThrows(JwtException.class, () -> jwtService.extractClaims(token(OTHER_KEY, "mallory@example.com", 60_000)));
+        assertThrows(JwtException.class, () -> jwtService.extractClaims(valid + "x"));
+    }
+
+    @Test
+    void testExtractClaims_ExpiredTokenAfterValidOneCached() {
+        // Negative case: An expired token of the same parent is rejected
+        jwtService.extractClaims(validToken());
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractClaims(token(SIGN_IN_KEY, EMAIL, -1_000)));
+    }
+
+    @Test
+    void testExtractClaims_CachedTokenNotServedPastExpiry() throws InterruptedException {
+        // Negative case: A cached token is verified again, and rejected, once it expires
+        String token = token(SIGN_IN_KEY, EMAIL, 1_000);
+        assertEquals(EMAIL, jwtService.extractUsername(token));
+
+        // The expiry claim has second precision
+        Thread.sleep(2_000);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractClaims(token));
+    }
+
+    @Test
+    void testExtractClaims_ReusedWithinRequest() {
+        // Positive case: The claims are stored on the request and reused for the same token only
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        String token = validToken();
+
+        Claims claims = jwtService.extractClaims(token);
+
+        assertSame(claims, request.getAttribute(JwtService.CLAIMS_ATTRIBUTE));
+        assertSame(claims, jwtService.extractClaims(token));
+        assertThrows(JwtException.class, () -> jwtService.extractClaims(token(OTHER_KEY, EMAIL, 60_000)));
+        assertSame(claims, request.getAttribute(JwtService.CLAIMS_ATTRIBUTE), "A rejected token should not replace the claims");
+    }
+}
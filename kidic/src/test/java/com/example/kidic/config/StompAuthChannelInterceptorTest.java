@@ -0,0 +1,162 @@
+package com.example.kidic.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class StompAuthChannelInterceptorTest {
+
+    private static final UUID FAMILY_ID = UUID.fromString("11111111-2222-3333-4444-555555555555");
+
+    @Mock
+    private ParentPrincipalCache parentPrincipalCache;
+
+    private final JwtService jwtService = new JwtService();
+
+    private StompAuthChannelInterceptor interceptor;
+
+    private Principal parent;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        interceptor = new StompAuthChannelInterceptor(jwtService, parentPrincipalCache);
+        parent = new UsernamePasswordAuthenticationToken(
+                new ParentPrincipal(7L, "john@example.com", FAMILY_ID), null, List.of());
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String authorization, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        if (destination != null) {
+            accessor.setDestination(destination);
+        }
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Principal userOf(Message<?> message) {
+        return StompHeaderAccessor.wrap(message).getUser();
+    }
+
+    private String token(Map<String, Object> claims) {
+        return jwtService.generateToken(claims, User.withUsername("john@example.com").password("secret").build());
+    }
+
+    @Test
+    void testConnect_ValidToken() {
+        // Positive case: The session principal is built from the token claims
+        String token = token(Map.of("parent_id", 7L, "family_id", FAMILY_ID.toString()));
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, "Bearer " + token, null, null), null);
+
+        Principal user = userOf(result);
+        assertNotNull(user);
+        assertEquals("7", ((ParentPrincipal) ((UsernamePasswordAuthenticationToken) user).getPrincipal()).getName());
+    }
+
+    @Test
+    void testConnect_LegacyTokenResolvedByEmail() {
+        // Positive case: Tokens without the parent id claim are resolved through the principal cache
+        when(parentPrincipalCache.get("john@example.com"))
+                .thenReturn(Optional.of(new ParentPrincipal(7L, "john@example.com", FAMILY_ID)));
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, "Bearer " + token(Map.of()), null, null), null);
+
+        assertNotNull(userOf(result));
+    }
+
+    @Test
+    void testConnect_MissingToken() {
+        // Negative case: No Authorization header, or not a bearer token
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, null, null, null), null));
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Basic abc", null, null), null));
+    }
+
+    @Test
+    void testConnect_InvalidToken() {
+        // Negative case: Garbage, tampered signatures and unknown parents are refused
+        String token = token(Map.of("parent_id", 7L));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        when(parentPrincipalCache.get("john@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer not-a-jwt", null, null), null));
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer " + tampered, null, null), null));
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer " + token(Map.of()), null, null), null));
+    }
+
+    @Test
+    void testSubscribe_OwnFamilyAndPublicTopics() {
+        // Positive case: The parent's own family topic, broadcasts and user queues are allowed
+        for (String destination : List.of(StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX + FAMILY_ID,
+                "/topic/broadcasts", "/user/queue/notifications")) {
+            Message<byte[]> message = frame(StompCommand.SUBSCRIBE, null, destination, parent);
+            assertSame(message, interceptor.preSend(message, null));
+        }
+    }
+
+    @Test
+    void testSubscribe_OtherFamily() {
+        // Negative case: Another family's topic, a look-alike suffix, or no family at all
+        Principal withoutFamily = new UsernamePasswordAuthenticationToken(
+                new ParentPrincipal(8L, "jane@example.com", null), null, List.of());
+
+        for (String destination : List.of(StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX + UUID.randomUUID(),
+                StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX + FAMILY_ID + ".extra",
+                StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX)) {
+            assertThrows(MessageDeliveryException.class,
+                    () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null, destination, parent), null), destination);
+        }
+        assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null,
+                StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX + FAMILY_ID, withoutFamily), null));
+        assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null,
+                StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX + FAMILY_ID, null), null));
+    }
+
+    @Test
+    void testSubscribe_BrokerInternalDestinations() {
+        // Negative case: Relay system topics, session queues behind user destinations and unlisted topics
+        for (String destination : List.of("/topic/unresolved-user-destination", "/topic/simp-user-registry",
+                "/queue/notifications-user3f2a1b", "/queue/notifications", "/topic/other", "/user/topic/x",
+                "/topic/broadcasts.extra", "/app/anything")) {
+            assertThrows(MessageDeliveryException.class,
+                    () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null, destination, parent), null), destination);
+        }
+    }
+
+    @Test
+    void testSubscribe_Wildcards() {
+        // Negative case: Patterns would match every family's topic, even when they start with the own family id
+        for (String destination : List.of("/topic/**", "/topic/*", "/topic/family.*", "/topic/#", "/topic/family.#",
+                "/topic/family.{id}", "/topic/family.?", "/queue/**",
+                StompAuthChannelInterceptor.FAMILY_TOPIC_PREFIX + FAMILY_ID + "*")) {
+            assertThrows(MessageDeliveryException.class,
+                    () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null, destination, parent), null), destination);
+        }
+    }
+}
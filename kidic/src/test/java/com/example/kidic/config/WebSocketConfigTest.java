@@ -0,0 +1,78 @@
+package com.example.kidic.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebSocketConfigTest {
+
+    private final WebSocketConfig config = new WebSocketConfig();
+
+    private MessageBrokerRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(config, "relayHost", "rabbitmq");
+        ReflectionTestUtils.setField(config, "relayPort", 61614);
+        ReflectionTestUtils.setField(config, "relayLogin", "kidic");
+        ReflectionTestUtils.setField(config, "relayPasscode", "secret");
+        ReflectionTestUtils.setField(config, "relayVirtualHost", "");
+        registry = mock(MessageBrokerRegistry.class);
+    }
+
+    @Test
+    void testConfigureMessageBroker_Simple() {
+        // Positive case: Subscriptions are kept by the in-memory broker
+        ReflectionTestUtils.setField(config, "brokerMode", "simple");
+
+        config.configureMessageBroker(registry);
+
+        verify(registry).enableSimpleBroker("/topic", "/queue");
+        verify(registry, never()).enableStompBrokerRelay(any(String[].class));
+        verify(registry).setUserDestinationPrefix("/user");
+    }
+
+    @Test
+    void testConfigureMessageBroker_Relay() {
+        // Positive case: Subscriptions and the user registry are shared through the external broker
+        ReflectionTestUtils.setField(config, "brokerMode", "RELAY");
+        ReflectionTestUtils.setField(config, "relayVirtualHost", "kidic");
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+        StompBrokerRelayRegistration relay = spy(new StompBrokerRelayRegistration(channel, channel,
+                new String[]{"/topic", "/queue"}));
+        when(registry.enableStompBrokerRelay("/topic", "/queue")).thenReturn(relay);
+
+        config.configureMessageBroker(registry);
+
+        verify(registry, never()).enableSimpleBroker(any(String[].class));
+        verify(relay).setRelayHost("rabbitmq");
+        verify(relay).setRelayPort(61614);
+        verify(relay).setClientLogin("kidic");
+        verify(relay).setSystemPasscode("secret");
+        verify(relay).setVirtualHost("kidic");
+        verify(relay).setUserDestinationBroadcast("/topic/unresolved-user-destination");
+        verify(relay).setUserRegistryBroadcast("/topic/simp-user-registry");
+    }
+
+    @Test
+    void testConfigureMessageBroker_UnknownMode() {
+        // Negative case: A misspelled mode fails at startup instead of silently using one broker
+        ReflectionTestUtils.setField(config, "brokerMode", "rabbit");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> config.configureMessageBroker(registry));
+        assertTrue(e.getMessage().contains("rabbit"));
+        verify(registry, never()).enableSimpleBroker(any(String[].class));
+        verify(registry, never()).enableStompBrokerRelay(any(String[].class));
+    }
+}
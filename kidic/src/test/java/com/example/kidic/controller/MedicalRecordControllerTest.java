@@ -1,5 +1,6 @@
 package com.example.kidic.controller;
 
+import com.example.kidic.dto.MedicalRecordFileDTO;
 import com.example.kidic.dto.MedicalRecordRequestDTO;
 import com.example.kidic.dto.MedicalRecordResponseDTO;
 import com.example.kidic.dto.MedicalRecordWithFileRequestDTO;
@@ -14,8 +15,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -29,6 +33,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(MockitoExtension.class)
 class MedicalRecordControllerTest {
 
+    private static final Instant UPLOADED_AT = Instant.parse("2025-10-01T08:30:00Z");
+
     private MockMvc mockMvc;
 
     @Mock
@@ -469,32 +475,124 @@ class MedicalRecordControllerTest {
     // GET /api/medical-records/children/{childId}/{recordId}/file
     @Test
     void testDownloadFile_Success() throws Exception {
-        MedicalRecordResponseDTO response = MedicalRecordResponseDTO.builder()
-                .id(1L)
-                .type(MedicalRecord.MedicalRecordType.VACCINATION)
-                .dateOfRecord(LocalDate.now())
-                .description("Test vaccination")
-                .fileType(MedicalRecord.FileType.PDF)
-                .fileName("test.pdf")
-                .fileContent("test file content".getBytes())
-                .fileSize(18L)
-                .fileContentType("application/pdf")
-                .status(MedicalRecord.StatusType.ACTIVE)
-                .childId(1L)
-                .childName("Test Child")
-                .build();
+        MedicalRecordFileDTO file = new MedicalRecordFileDTO(1L, 1L, "test.pdf", 17L, "application/pdf", "a".repeat(64), UPLOADED_AT);
+        byte[] content = "test file content".getBytes();
 
-        when(medicalRecordService.getMedicalRecord(eq(1L), eq(1L), eq("fake-token"))).thenReturn(response);
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"))).thenReturn(file);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write(content);
+            return null;
+        }).when(medicalRecordService).writeMedicalRecordFile(eq(file), eq(0L), eq(17L), any(OutputStream.class));
 
-        mockMvc.perform(get("/api/medical-records/children/1/1/file")
+        MvcResult result = mockMvc.perform(get("/api/medical-records/children/1/1/file")
                         .header("Authorization", "Bearer fake-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.parseMediaType("application/pdf")))
                 .andExpect(header().string("Content-Disposition", "attachment; filename=\"test.pdf\""))
-                .andExpect(header().string("Content-Length", "18"))
-                .andExpect(content().bytes("test file content".getBytes()));
+                .andExpect(header().string("Content-Length", "17"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().string("ETag", "\"" + "a".repeat(64) + "\""))
+                .andExpect(header().string("Last-Modified", "Wed, 01 Oct 2025 08:30:00 GMT"))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(content().bytes(content));
 
-        verify(medicalRecordService, times(1)).getMedicalRecord(eq(1L), eq(1L), eq("fake-token"));
+        verify(medicalRecordService, times(1)).getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"));
+        verify(medicalRecordService, times(1)).writeMedicalRecordFile(eq(file), eq(0L), eq(17L), any(OutputStream.class));
+    }
+
+    @Test
+    void testDownloadFile_Range() throws Exception {
+        MedicalRecordFileDTO file = new MedicalRecordFileDTO(1L, 1L, "clip.mp4", 1000L, "video/mp4", "b".repeat(64), UPLOADED_AT);
+
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"))).thenReturn(file);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write(new byte[100]);
+            return null;
+        }).when(medicalRecordService).writeMedicalRecordFile(eq(file), eq(900L), eq(100L), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/medical-records/children/1/1/file")
+                        .header("Authorization", "Bearer fake-token")
+                        .header("Range", "bytes=900-"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 900-999/1000"))
+                .andExpect(header().string("Content-Length", "100"));
+
+        verify(medicalRecordService, times(1)).writeMedicalRecordFile(eq(file), eq(900L), eq(100L), any(OutputStream.class));
+    }
+
+    @Test
+    void testDownloadFile_NotModified() throws Exception {
+        MedicalRecordFileDTO file = new MedicalRecordFileDTO(1L, 1L, "test.pdf", 17L, "application/pdf", "a".repeat(64), UPLOADED_AT);
+
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"))).thenReturn(file);
+
+        mockMvc.perform(get("/api/medical-records/children/1/1/file")
+                        .header("Authorization", "Bearer fake-token")
+                        .header("If-None-Match", "\"" + "a".repeat(64) + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + "a".repeat(64) + "\""));
+
+        verify(medicalRecordService, never()).writeMedicalRecordFile(any(MedicalRecordFileDTO.class), anyLong(), anyLong(), any(OutputStream.class));
+    }
+
+    @Test
+    void testDownloadFile_NotModifiedSince() throws Exception {
+        MedicalRecordFileDTO file = new MedicalRecordFileDTO(1L, 1L, "test.pdf", 17L, "application/pdf", null, UPLOADED_AT);
+
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"))).thenReturn(file);
+
+        mockMvc.perform(get("/api/medical-records/children/1/1/file")
+                        .header("Authorization", "Bearer fake-token")
+                        .header("If-Modified-Since", "Wed, 01 Oct 2025 08:30:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(medicalRecordService, never()).writeMedicalRecordFile(any(MedicalRecordFileDTO.class), anyLong(), anyLong(), any(OutputStream.class));
+    }
+
+    @Test
+    void testDownloadFile_StaleIfRange() throws Exception {
+        // The file was replaced since the client started, so the range is ignored
+        MedicalRecordFileDTO file = new MedicalRecordFileDTO(1L, 1L, "clip.mp4", 1000L, "video/mp4", "b".repeat(64), UPLOADED_AT);
+
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"))).thenReturn(file);
+
+        MvcResult result = mockMvc.perform(get("/api/medical-records/children/1/1/file")
+                        .header("Authorization", "Bearer fake-token")
+                        .header("Range", "bytes=900-")
+                        .header("If-Range", "\"" + "c".repeat(64) + "\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Length", "1000"));
+
+        verify(medicalRecordService, times(1)).writeMedicalRecordFile(eq(file), eq(0L), eq(1000L), any(OutputStream.class));
+    }
+
+    @Test
+    void testDownloadFile_UnsatisfiableRange() throws Exception {
+        MedicalRecordFileDTO file = new MedicalRecordFileDTO(1L, 1L, "clip.mp4", 1000L, "video/mp4", "b".repeat(64), UPLOADED_AT);
+
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"))).thenReturn(file);
+
+        mockMvc.perform(get("/api/medical-records/children/1/1/file")
+                        .header("Authorization", "Bearer fake-token")
+                        .header("Range", "bytes=2000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */1000"));
+
+        verify(medicalRecordService, never()).writeMedicalRecordFile(any(MedicalRecordFileDTO.class), anyLong(), anyLong(), any(OutputStream.class));
     }
 
     @Test
@@ -502,52 +600,43 @@ class MedicalRecordControllerTest {
         mockMvc.perform(get("/api/medical-records/children/1/1/file"))
                 .andExpect(status().isBadRequest());
 
-        verify(medicalRecordService, never()).getMedicalRecord(anyLong(), anyLong(), anyString());
+        verify(medicalRecordService, never()).getMedicalRecordFile(anyLong(), anyLong(), anyString());
     }
 
     @Test
     void testDownloadFile_NoFile() throws Exception {
-        MedicalRecordResponseDTO response = MedicalRecordResponseDTO.builder()
-                .id(1L)
-                .type(MedicalRecord.MedicalRecordType.VACCINATION)
-                .dateOfRecord(LocalDate.now())
-                .description("Test vaccination")
-                .fileContent(null)
-                .status(MedicalRecord.StatusType.ACTIVE)
-                .childId(1L)
-                .childName("Test Child")
-                .build();
+        MedicalRecordFileDTO file = new MedicalRecordFileDTO(1L, 1L, null, null, null, null, null);
 
-        when(medicalRecordService.getMedicalRecord(eq(1L), eq(1L), eq("fake-token"))).thenReturn(response);
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"))).thenReturn(file);
 
         mockMvc.perform(get("/api/medical-records/children/1/1/file")
                         .header("Authorization", "Bearer fake-token"))
                 .andExpect(status().isNotFound());
 
-        verify(medicalRecordService, times(1)).getMedicalRecord(eq(1L), eq(1L), eq("fake-token"));
+        verify(medicalRecordService, times(1)).getMedicalRecordFile(eq(1L), eq(1L), eq("fake-token"));
     }
 
     @Test
     void testDownloadFile_NonExistentChild() throws Exception {
-        when(medicalRecordService.getMedicalRecord(eq(999L), eq(1L), eq("fake-token")))
+        when(medicalRecordService.getMedicalRecordFile(eq(999L), eq(1L), eq("fake-token")))
                 .thenThrow(new IllegalArgumentException("Child not found"));
 
         mockMvc.perform(get("/api/medical-records/children/999/1/file")
                         .header("Authorization", "Bearer fake-token"))
                 .andExpect(status().isNotFound());
 
-        verify(medicalRecordService, times(1)).getMedicalRecord(eq(999L), eq(1L), eq("fake-token"));
+        verify(medicalRecordService, times(1)).getMedicalRecordFile(eq(999L), eq(1L), eq("fake-token"));
     }
 
     @Test
     void testDownloadFile_NonExistentRecord() throws Exception {
-        when(medicalRecordService.getMedicalRecord(eq(1L), eq(999L), eq("fake-token")))
+        when(medicalRecordService.getMedicalRecordFile(eq(1L), eq(999L), eq("fake-token")))
                 .thenThrow(new IllegalArgumentException("Medical record not found"));
 
         mockMvc.perform(get("/api/medical-records/children/1/999/file")
                         .header("Authorization", "Bearer fake-token"))
                 .andExpect(status().isNotFound());
 
-        verify(medicalRecordService, times(1)).getMedicalRecord(eq(1L), eq(999L), eq("fake-token"));
+        verify(medicalRecordService, times(1)).getMedicalRecordFile(eq(1L), eq(999L), eq("fake-token"));
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.kidic.controller;
 
+import com.example.kidic.dto.ParentProfilePictureDTO;
 import com.example.kidic.dto.ParentResponseDTO;
 import com.example.kidic.dto.ParentUpdateRequestDTO;
 import com.example.kidic.entity.Parent;
@@ -12,8 +13,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -264,7 +268,7 @@ class ParentControllerTest {
         response.setGender(false);
         response.setProfilePictureType(Parent.ProfilePictureType.CUSTOM);
         response.setProfilePictureName("profile.jpg");
-        response.setProfilePictureContent(profilePictureContent);
+        response.setProfilePictureUrl("/api/parent/1/profile-picture");
         response.setProfilePictureSize(18L);
         response.setProfilePictureContentType("image/jpeg");
 
@@ -282,8 +286,62 @@ class ParentControllerTest {
                 .andExpect(jsonPath("$.profilePictureType").value("CUSTOM"))
                 .andExpect(jsonPath("$.profilePictureName").value("profile.jpg"))
                 .andExpect(jsonPath("$.profilePictureSize").value(18))
-                .andExpect(jsonPath("$.profilePictureContentType").value("image/jpeg"));
+                .andExpect(jsonPath("$.profilePictureContentType").value("image/jpeg"))
+                .andExpect(jsonPath("$.profilePictureUrl").value("/api/parent/1/profile-picture"));
 
         verify(parentService, times(1)).updateParent(eq("fake-token"), any(ParentUpdateRequestDTO.class));
     }
+
+    // GET /api/parent/{parentId}/profile-picture
+    @Test
+    void testGetProfilePicture_Success() throws Exception {
+        byte[] content = "test image content".getBytes();
+        String hash = "a".repeat(64);
+        ParentProfilePictureDTO picture = new ParentProfilePictureDTO(2L, "jane.smith@email.com", null,
+                "profile.jpg", hash, (long) content.length, "image/jpeg", null);
+        when(parentService.getProfilePicture(eq(2L), eq("fake-token"))).thenReturn(picture);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(content);
+            return null;
+        }).when(parentService).writeProfilePicture(eq(picture), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/parent/2/profile-picture")
+                        .header("Authorization", "Bearer fake-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(header().string("Cache-Control", "max-age=3600, private"))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    void testGetProfilePicture_NotModified() throws Exception {
+        String hash = "a".repeat(64);
+        ParentProfilePictureDTO picture = new ParentProfilePictureDTO(2L, "jane.smith@email.com", null,
+                "profile.jpg", hash, 18L, "image/jpeg", null);
+        when(parentService.getProfilePicture(eq(2L), eq("fake-token"))).thenReturn(picture);
+
+        mockMvc.perform(get("/api/parent/2/profile-picture")
+                        .header("Authorization", "Bearer fake-token")
+                        .header("If-None-Match", "\"" + hash + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"" + hash + "\""));
+
+        verify(parentService, never()).writeProfilePicture(any(), any());
+    }
+
+    @Test
+    void testGetProfilePicture_NoPicture() throws Exception {
+        ParentProfilePictureDTO picture = new ParentProfilePictureDTO(2L, "jane.smith@email.com", null,
+                null, null, null, null, null);
+        when(parentService.getProfilePicture(eq(2L), eq("fake-token"))).thenReturn(picture);
+
+        mockMvc.perform(get("/api/parent/2/profile-picture")
+                        .header("Authorization", "Bearer fake-token"))
+                .andExpect(status().isNotFound());
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.example.kidic.controller;
 
+import com.example.kidic.dto.ProductSummaryDTO;
+import com.example.kidic.entity.ImageVariant;
 import com.example.kidic.entity.Product;
 import com.example.kidic.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,12 +14,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -41,21 +47,40 @@ class ProductControllerTest {
         mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
     }
 
+    private static ProductService.Catalog catalog() {
+        List<ProductSummaryDTO> products = Arrays.asList(
+                new ProductSummaryDTO(1L, "Product1", "link1", "desc1", Product.ImageType.IMAGE_1, Product.CategoryType.TOYS, null, null, null),
+                new ProductSummaryDTO(2L, "Product2", "link2", "desc2", Product.ImageType.CUSTOM, Product.CategoryType.BOOKS, 2048L, "image/png", "b".repeat(64)));
+        return new ProductService.Catalog(products, "\"abc123\"", 1L, Instant.now());
+    }
+
     @Test
     void testListProducts_Success() throws Exception {
-        Product product1 = new Product("Product1", "link1", "desc1", Product.ImageType.IMAGE_1, Product.CategoryType.TOYS);
-        Product product2 = new Product("Product2", "link2", "desc2", Product.ImageType.IMAGE_2, Product.CategoryType.BOOKS);
-        List<Product> products = Arrays.asList(product1, product2);
-
-        when(productService.listProducts()).thenReturn(products);
+        when(productService.getCatalog()).thenReturn(catalog());
 
         mockMvc.perform(get("/api/products")
                         .header("Authorization", "Bearer fake-token"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc123\""))
                 .andExpect(jsonPath("$[0].name").value("Product1"))
-                .andExpect(jsonPath("$[1].name").value("Product2"));
+                .andExpect(jsonPath("$[0].imageUrl").doesNotExist())
+                .andExpect(jsonPath("$[1].name").value("Product2"))
+                .andExpect(jsonPath("$[1].imageUrl").value("/api/products/2/image?v=bbbbbbbbbbbb"))
+                .andExpect(jsonPath("$[1].thumbnailUrl").value("/api/products/2/image?size=thumbnail&v=bbbbbbbbbbbb"));
+
+        verify(productService, times(1)).getCatalog();
+    }
 
-        verify(productService, times(1)).listProducts();
+    @Test
+    void testListProducts_NotModified() throws Exception {
+        when(productService.getCatalog()).thenReturn(catalog());
+
+        mockMvc.perform(get("/api/products")
+                        .header("Authorization", "Bearer fake-token")
+                        .header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc123\""))
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -63,7 +88,7 @@ class ProductControllerTest {
         mockMvc.perform(get("/api/products"))
                 .andExpect(status().isBadRequest());
 
-        verify(productService, never()).listProducts();
+        verify(productService, never()).getCatalog();
     }
 
     @Test
@@ -174,14 +199,23 @@ class ProductControllerTest {
     @Test
     void testGetProductImage_Success() throws Exception {
         Product product = new Product("Product", "link", "desc", Product.ImageType.CUSTOM, Product.CategoryType.TOYS);
-        product.setImageContent("test image content".getBytes());
+        product.setImageHash("a".repeat(64));
         product.setImageContentType("image/jpeg");
         product.setImageName("test.jpg");
         product.setImageSize(18L);
 
         when(productService.getProduct(1L)).thenReturn(product);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("test image content".getBytes());
+            return null;
+        }).when(productService).writeProductImage(eq(product), any(OutputStream.class));
 
-        mockMvc.perform(get("/api/products/1/image"))
+        MvcResult result = mockMvc.perform(get("/api/products/1/image"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.parseMediaType("image/jpeg")))
                 .andExpect(header().string("Content-Disposition", "inline; filename=\"test.jpg\""))
@@ -191,10 +225,80 @@ class ProductControllerTest {
         verify(productService, times(1)).getProduct(1L);
     }
 
+    @Test
+    void testGetProductImage_VersionedThumbnail() throws Exception {
+        Product product = new Product("Product", "link", "desc", Product.ImageType.CUSTOM, Product.CategoryType.TOYS);
+        product.setImageHash("a".repeat(64));
+        product.setImageContentType("image/png");
+        product.setImageName("test.png");
+        product.setImageSize(4096L);
+        ImageVariant thumbnail = new ImageVariant();
+        thumbnail.setOriginalHash(product.getImageHash());
+        thumbnail.setSize(ImageVariant.Size.THUMBNAIL);
+        thumbnail.setVariantHash("c".repeat(64));
+        thumbnail.setContentType("image/jpeg");
+        thumbnail.setByteSize(5L);
+
+        when(productService.getProduct(1L)).thenReturn(product);
+        when(productService.findImageVariant(product, ImageVariant.Size.THUMBNAIL)).thenReturn(Optional.of(thumbnail));
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("thumb".getBytes());
+            return null;
+        }).when(productService).writeImageVariant(eq(thumbnail), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/products/1/image")
+                        .param("size", "thumbnail")
+                        .param("v", "aaaaaaaaaaaa"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(header().string("ETag", "\"" + "c".repeat(64) + "\""))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(content().bytes("thumb".getBytes()));
+
+        verify(productService, never()).writeProductImage(any(), any());
+    }
+
+    @Test
+    void testGetProductImage_NotModified() throws Exception {
+        Product product = new Product("Product", "link", "desc", Product.ImageType.CUSTOM, Product.CategoryType.TOYS);
+        product.setImageHash("a".repeat(64));
+        product.setImageContentType("image/jpeg");
+        product.setImageSize(18L);
+
+        when(productService.getProduct(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/api/products/1/image")
+                        .header("If-None-Match", "\"" + "a".repeat(64) + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"));
+
+        verify(productService, never()).writeProductImage(any(), any());
+    }
+
+    @Test
+    void testGetProductImage_NotModifiedSince() throws Exception {
+        Product product = new Product("Product", "link", "desc", Product.ImageType.CUSTOM, Product.CategoryType.TOYS);
+        product.setImageContentType("image/jpeg");
+        product.setImageSize(18L);
+        product.setImageUploadedAt(Instant.parse("2025-10-01T08:30:00Z"));
+
+        when(productService.getProduct(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/api/products/1/image")
+                        .header("If-Modified-Since", "Thu, 02 Oct 2025 00:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).writeProductImage(any(), any());
+    }
+
     @Test
     void testGetProductImage_NoImage() throws Exception {
         Product product = new Product("Product", "link", "desc", Product.ImageType.IMAGE_1, Product.CategoryType.TOYS);
-        product.setImageContent(null);
 
         when(productService.getProduct(1L)).thenReturn(product);
 
@@ -0,0 +1,96 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.dto.NotificationResponseDTO;
+import com.example.kidic.entity.BroadcastNotification;
+import com.example.kidic.entity.BroadcastNotificationRead;
+import com.example.kidic.entity.Notification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class BroadcastNotificationRepositoryTest {
+
+    @Autowired
+    private BroadcastNotificationRepository broadcastNotificationRepository;
+
+    @Autowired
+    private BroadcastNotificationReadRepository broadcastNotificationReadRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private BroadcastNotification older;
+    private BroadcastNotification newer;
+
+    @BeforeEach
+    void setUp() {
+        // Clear database to ensure test isolation
+        broadcastNotificationReadRepository.deleteAll();
+        broadcastNotificationRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        older = persistBroadcast("Maintenance tonight", LocalDateTime.of(2024, 1, 1, 10, 0));
+        newer = persistBroadcast("New feature", LocalDateTime.of(2024, 2, 1, 10, 0));
+    }
+
+    private BroadcastNotification persistBroadcast(String content, LocalDateTime createdAt) {
+        BroadcastNotification broadcast = new BroadcastNotification();
+        broadcast.setContent(content);
+        broadcast.setType(Notification.NotificationType.URGENT);
+        broadcast.setCreatedAt(createdAt);
+        return entityManager.persistAndFlush(broadcast);
+    }
+
+    @Test
+    void testFindFeedForParent_Success() {
+        // Positive case: Every broadcast is listed newest first with the parent's read state
+        entityManager.persistAndFlush(new BroadcastNotificationRead(older.getId(), 1L));
+
+        List<NotificationResponseDTO> feed = broadcastNotificationRepository.findFeedForParent(1L);
+        assertEquals(2, feed.size(), "Both broadcasts should be listed");
+        assertEquals(newer.getId(), feed.get(0).getId(), "Newest broadcast should come first");
+        assertFalse(feed.get(0).getIsRead(), "Newer broadcast should be unread");
+        assertTrue(feed.get(1).getIsRead(), "Older broadcast should be read");
+        assertTrue(feed.get(1).isBroadcast());
+    }
+
+    @Test
+    void testFindFeedForParent_ReadByOtherParent() {
+        // Negative case: Another parent's read state does not leak
+        entityManager.persistAndFlush(new BroadcastNotificationRead(older.getId(), 2L));
+
+        List<NotificationResponseDTO> feed = broadcastNotificationRepository.findFeedForParent(1L);
+        assertEquals(2, feed.size(), "Both broadcasts should be listed");
+        assertTrue(feed.stream().noneMatch(NotificationResponseDTO::getIsRead), "Nothing should be read");
+    }
+
+    @Test
+    void testFindUnreadForParent_Success() {
+        // Positive case: Only broadcasts without a read row are returned
+        entityManager.persistAndFlush(new BroadcastNotificationRead(newer.getId(), 1L));
+
+        List<NotificationResponseDTO> unread = broadcastNotificationRepository.findUnreadForParent(1L);
+        assertEquals(1, unread.size(), "One broadcast should be unread");
+        assertEquals(older.getId(), unread.get(0).getId());
+    }
+
+    @Test
+    void testExistsByBroadcastIdAndParentId() {
+        // Positive and negative case: Read row lookup
+        entityManager.persistAndFlush(new BroadcastNotificationRead(newer.getId(), 1L));
+
+        assertTrue(broadcastNotificationReadRepository.existsByBroadcastIdAndParentId(newer.getId(), 1L));
+        assertFalse(broadcastNotificationReadRepository.existsByBroadcastIdAndParentId(older.getId(), 1L));
+    }
+}
@@ -1,23 +1,37 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.dto.ChildDetailsDTO;
+import com.example.kidic.dto.ParentDetailsDTO;
 import com.example.kidic.entity.Child;
+import com.example.kidic.entity.DiseaseAndAllergy;
 import com.example.kidic.entity.Family;
+import com.example.kidic.entity.GrowthRecord;
+import com.example.kidic.entity.Meal;
+import com.example.kidic.entity.MedicalRecord;
 import com.example.kidic.entity.Parent;
+import com.example.kidic.service.FamilyDashboardService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @ActiveProfiles("test")
+@Import({FamilyDashboardService.class, ChildAccessGuard.class})
 class ChildRepositoryTest {
 
     @Autowired
@@ -32,6 +46,12 @@ class ChildRepositoryTest {
     @Autowired
     private TestEntityManager entityManager;
 
+    @Autowired
+    private FamilyDashboardService familyDashboardService;
+
+    @Autowired
+    private ChildAccessGuard childAccessGuard;
+
     @BeforeEach
     void setUp() {
         // Clear database to ensure test isolation
@@ -238,4 +258,105 @@ class ChildRepositoryTest {
         long count = childRepository.countByFamily(family);
         assertEquals(0, count, "Should count zero children in empty family");
     }
-}
\ No newline at end of file
+
+    private Parent persistFamily(String email, int childCount, int recordsPerType) {
+        Family family = entityManager.persist(new Family());
+        Parent parent = new Parent("John Smith", "1234567890", email, true, "password");
+        parent.setFamily(family);
+        entityManager.persist(parent);
+        for (int i = 0; i < childCount; i++) {
+            Child child = entityManager.persist(new Child("Child " + i, i % 2 == 0, LocalDate.of(2018, 1, 1).plusDays(i), null, family));
+            for (int j = 0; j < recordsPerType; j++) {
+                LocalDate date = LocalDate.of(2024, 1, 1).plusDays(j);
+                entityManager.persist(new MedicalRecord(MedicalRecord.MedicalRecordType.CHECKUP, date, "Checkup " + j,
+                        null, MedicalRecord.StatusType.COMPLETED, child));
+                entityManager.persist(new GrowthRecord("Visit " + j, date, 100.0 + j, 15.0 + j,
+                        GrowthRecord.GrowthType.PHYSICAL, GrowthRecord.StatusType.ACHIEVED, child));
+                entityManager.persist(new DiseaseAndAllergy(DiseaseAndAllergy.DiseaseAllergyType.ALLERGY, "Allergy " + j, null, child));
+                Meal meal = new Meal("Meal " + j, new ArrayList<>(List.of("Rice", "Carrot", "Egg")), "Boil");
+                meal.setChild(child);
+                entityManager.persist(meal);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return parent;
+    }
+
+    private long countQueries(Parent parent, ParentDetailsDTO[] result) {
+        Parent loaded = entityManager.find(Parent.class, parent.getId());
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        result[0] = familyDashboardService.getDetails(loaded);
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testDashboard_LoadsAllRecords() {
+        // Positive case: Every child comes with all of its records
+        Parent parent = persistFamily("john.smith@email.com", 2, 3);
+        ParentDetailsDTO[] result = new ParentDetailsDTO[1];
+        countQueries(parent, result);
+
+        assertEquals(2, result[0].getChildren().size());
+        for (ChildDetailsDTO child : result[0].getChildren()) {
+            assertEquals(3, child.getMedicalRecords().size());
+            assertEquals(3, child.getGrowthRecords().size());
+            assertEquals(3, child.getDiseasesAndAllergies().size());
+            assertEquals(3, child.getMeals().size());
+            assertEquals(Set.of("Rice", "Carrot", "Egg"), Set.copyOf(child.getMeals().get(0).getIngredients()));
+            assertTrue(child.getMedicalRecords().stream().allMatch(record -> child.getId().equals(record.getChildId())));
+        }
+    }
+
+    @Test
+    void testDashboard_QueryCountDoesNotGrowWithFamilySize() {
+        // Positive case: Same number of queries for a small and a large family
+        ParentDetailsDTO[] result = new ParentDetailsDTO[1];
+        long small = countQueries(persistFamily("small@email.com", 1, 1), result);
+        long large = countQueries(persistFamily("large@email.com", 8, 10), result);
+
+        assertEquals(8, result[0].getChildren().size());
+        assertEquals(small, large, "Query count should not depend on the number of children or records");
+        assertTrue(large <= 5, "Expected one query per record type, was " + large);
+    }
+
+    @Test
+    void testDashboard_NoChildren() {
+        // Negative case: A family without children needs only the children query
+        ParentDetailsDTO[] result = new ParentDetailsDTO[1];
+        long queries = countQueries(persistFamily("john.smith@email.com", 0, 0), result);
+
+        assertTrue(result[0].getChildren().isEmpty());
+        assertEquals(1, queries);
+    }
+
+    @Test
+    void testExistsByIdAndFamilyId() {
+        // Positive and negative case: Membership is checked against the child's own family only
+        Family family = entityManager.persistAndFlush(new Family());
+        Family otherFamily = entityManager.persistAndFlush(new Family());
+        Child child = entityManager.persistAndFlush(new Child("Emma Smith", false, LocalDate.of(2015, 5, 15), null, family));
+
+        assertTrue(childRepository.existsByIdAndFamilyId(child.getId(), family.getId()));
+        assertFalse(childRepository.existsByIdAndFamilyId(child.getId(), otherFamily.getId()));
+        assertFalse(childRepository.existsByIdAndFamilyId(child.getId() + 1, family.getId()));
+    }
+
+    @Test
+    void testRequireAccess_OtherFamily() {
+        // Negative case: A child of another family is rejected like a missing one
+        Family family = entityManager.persistAndFlush(new Family());
+        Family otherFamily = entityManager.persistAndFlush(new Family());
+        Child child = entityManager.persistAndFlush(new Child("Emma Smith", false, LocalDate.of(2015, 5, 15), null, family));
+
+        childAccessGuard.requireAccess(family.getId(), child.getId());
+        IllegalArgumentException foreign = assertThrows(IllegalArgumentException.class,
+                () -> childAccessGuard.requireAccess(otherFamily.getId(), child.getId()));
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> childAccessGuard.requireAccess(family.getId(), child.getId() + 1));
+        assertEquals(foreign.getMessage(), missing.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> childAccessGuard.requireAccess(null, child.getId()));
+    }
+}
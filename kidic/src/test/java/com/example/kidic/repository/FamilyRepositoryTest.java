@@ -1,24 +1,33 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.config.FamilyCache;
+import com.example.kidic.dto.FamilyResponseDTO;
 import com.example.kidic.entity.Child;
 import com.example.kidic.entity.Family;
 import com.example.kidic.entity.Parent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @ActiveProfiles("test")
+@AutoConfigureCache(cacheProvider = CacheType.SIMPLE)
+@Import(FamilyCache.class)
 class FamilyRepositoryTest {
 
     @Autowired
@@ -33,6 +42,9 @@ class FamilyRepositoryTest {
     @Autowired
     private TestEntityManager entityManager;
 
+    @Autowired
+    private FamilyCache familyCache;
+
     @BeforeEach
     void setUp() {
         // Clear database to ensure test isolation
@@ -137,4 +149,38 @@ class FamilyRepositoryTest {
         Optional<Family> foundFamily = familyRepository.findByChildId(999L); // Non-existent child ID
         assertFalse(foundFamily.isPresent(), "No family should be found with no children");
     }
-}
\ No newline at end of file
+
+    private static Callable<FamilyResponseDTO> countingLoader(AtomicInteger loads) {
+        return () -> {
+            loads.incrementAndGet();
+            return FamilyResponseDTO.builder().children(List.of()).parents(List.of()).build();
+        };
+    }
+
+    @Test
+    void testFamilyCache_LoadsOnceUntilEvicted() {
+        // Positive case: Repeated reads are served from the cache until the family changes
+        UUID familyId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        FamilyResponseDTO first = familyCache.get(familyId, countingLoader(loads));
+        FamilyResponseDTO second = familyCache.get(familyId, countingLoader(loads));
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        familyCache.evict(familyId);
+        familyCache.get(familyId, countingLoader(loads));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testFamilyCache_LoaderFailure() {
+        // Negative case: The loader's exception reaches the caller unwrapped and nothing is cached
+        UUID familyId = UUID.randomUUID();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> familyCache.get(familyId, () -> {
+                    throw new IllegalArgumentException("Family not found");
+                }));
+        assertEquals("Family not found", e.getMessage());
+        assertNotNull(familyCache.get(familyId, () -> FamilyResponseDTO.builder().build()));
+    }
+}
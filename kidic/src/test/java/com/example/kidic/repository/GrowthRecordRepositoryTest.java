@@ -0,0 +1,356 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.config.ParentPrincipal;
+import com.example.kidic.dto.GrowthChartDTO;
+import com.example.kidic.dto.GrowthImportReportDTO;
+import com.example.kidic.dto.GrowthMeasurementDTO;
+import com.example.kidic.dto.GrowthSummaryDTO;
+import com.example.kidic.entity.Child;
+import com.example.kidic.entity.Family;
+import com.example.kidic.entity.GrowthRecord;
+import com.example.kidic.service.GrowthRecordImportService;
+import com.example.kidic.service.GrowthRecordService;
+import com.example.kidic.service.GrowthStandards;
+import com.example.kidic.service.GrowthSummaryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"kidic.growth.import.chunk-size=100", "kidic.growth.import.max-errors=5"})
+@ActiveProfiles("test")
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({GrowthRecordService.class, GrowthRecordImportService.class, GrowthStandards.class, GrowthSummaryService.class,
+        ChildAccessGuard.class})
+class GrowthRecordRepositoryTest {
+
+    @Autowired
+    private GrowthRecordRepository growthRecordRepository;
+
+    @Autowired
+    private GrowthRecordService growthRecordService;
+
+    @Autowired
+    private GrowthSummaryService growthSummaryService;
+
+    @Autowired
+    private GrowthRecordImportService growthRecordImportService;
+
+    @Autowired
+    private GrowthSummaryRepository growthSummaryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Family family;
+    private Child child;
+
+    @BeforeEach
+    void setUp() {
+        family = entityManager.persistAndFlush(new Family());
+        child = entityManager.persistAndFlush(new Child("Liam Smith", true, LocalDate.of(2022, 1, 1), null, family));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new ParentPrincipal(1L, "john@example.com", family.getId()), null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void record(Child owner, LocalDate date, Double height, Double weight) {
+        entityManager.persist(new GrowthRecord("note", date, height, weight,
+                GrowthRecord.GrowthType.PHYSICAL, GrowthRecord.StatusType.ACHIEVED, owner));
+    }
+
+    @Test
+    void testFindMeasurementsByChildId_SortedWithoutEmptyRecords() {
+        // Positive case: Only records with a measurement, oldest first, for this child only
+        Child sibling = entityManager.persistAndFlush(new Child("Emma Smith", false, LocalDate.of(2020, 1, 1), null, family));
+        record(child, LocalDate.of(2022, 7, 1), 67.0, 8.0);
+        record(child, LocalDate.of(2022, 2, 1), 54.0, null);
+        record(child, LocalDate.of(2022, 5, 1), null, null);
+        record(sibling, LocalDate.of(2022, 3, 1), 90.0, 13.0);
+        entityManager.flush();
+
+        List<GrowthMeasurementDTO> measurements = growthRecordRepository.findMeasurementsByChildId(child.getId());
+        assertEquals(2, measurements.size());
+        assertEquals(LocalDate.of(2022, 2, 1), measurements.get(0).getDateOfRecord());
+        assertNull(measurements.get(0).getWeight());
+        assertEquals(LocalDate.of(2022, 7, 1), measurements.get(1).getDateOfRecord());
+    }
+
+    @Test
+    void testGetChart_DownsamplesDailyHistory() {
+        // Positive case: Three years of daily weights come back as the requested number of points,
+        // keeping both ends and a one-day outlier
+        LocalDate start = LocalDate.of(2022, 1, 1);
+        int days = 3 * 365;
+        for (int day = 0; day < days; day++) {
+            double weight = day == 500 ? 25.0 : 3.3 + day * 0.01;
+            record(child, start.plusDays(day), day % 30 == 0 ? 50.0 + day * 0.04 : null, weight);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        GrowthChartDTO chart = growthRecordService.getChart(child.getId(), 50);
+
+        assertEquals(days, chart.getWeightCount());
+        assertEquals(50, chart.getWeight().size());
+        assertEquals(start, chart.getWeight().get(0).getDate());
+        assertEquals(start.plusDays(days - 1), chart.getWeight().get(49).getDate());
+        assertTrue(chart.getWeight().stream().anyMatch(point -> point.getValue() == 25.0));
+        for (int i = 1; i < chart.getWeight().size(); i++) {
+            assertTrue(chart.getWeight().get(i).getDate().isAfter(chart.getWeight().get(i - 1).getDate()));
+        }
+        // Few enough height points to be returned as they are
+        assertEquals(chart.getHeightCount(), chart.getHeight().size());
+        assertNotNull(chart.getWeight().get(0).getPercentile());
+    }
+
+    @Test
+    void testGetChart_OtherFamily() {
+        // Negative case: A child of another family is not charted
+        Family other = entityManager.persistAndFlush(new Family());
+        Child stranger = entityManager.persistAndFlush(new Child("Noah Brown", true, LocalDate.of(2022, 1, 1), null, other));
+
+        assertThrows(IllegalArgumentException.class, () -> growthRecordService.getChart(stranger.getId(), 50));
+    }
+
+    @Test
+    void testGetChart_InvalidResolution() {
+        // Negative case: Fewer than three points cannot keep both ends and a shape
+        assertThrows(IllegalArgumentException.class, () -> growthRecordService.getChart(child.getId(), 2));
+    }
+
+    private GrowthRecord addWeight(LocalDate date, double weight) {
+        return growthRecordService.addForChild(child.getId(), null, date, null, weight,
+                GrowthRecord.GrowthType.PHYSICAL, GrowthRecord.StatusType.ACHIEVED);
+    }
+
+    @Test
+    void testSummary_VelocityOverWindow() {
+        // Positive case: Velocity runs from the last weight on or before three months before the latest one
+        addWeight(LocalDate.of(2022, 1, 1), 5.0);
+        addWeight(LocalDate.of(2022, 3, 1), 6.0);
+        GrowthRecord latest = addWeight(LocalDate.of(2022, 7, 1), 8.0);
+
+        GrowthSummaryDTO.Series weight = growthSummaryService.getSummary(child.getId()).getWeight();
+        assertEquals(3, weight.getCount());
+        assertEquals(5.0, weight.getMin());
+        assertEquals(8.0, weight.getMax());
+        assertEquals(LocalDate.of(2022, 3, 1), weight.getVelocityFromDate());
+        assertEquals(2.0 / (122 / (365.25 / 12)), weight.getVelocityPerMonth(), 1e-9);
+
+        // A late entry before the window becomes the baseline
+        addWeight(LocalDate.of(2022, 3, 20), 6.5);
+        assertEquals(LocalDate.of(2022, 3, 20), growthSummaryService.getSummary(child.getId()).getWeight().getVelocityFromDate());
+
+        // Deleting the latest weight moves the window back
+        growthRecordService.deleteForChild(child.getId(), latest.getId());
+        GrowthSummaryDTO summary = growthSummaryService.getSummary(child.getId());
+        assertEquals(3, summary.getRecordCount());
+        assertEquals(LocalDate.of(2022, 3, 20), summary.getWeight().getLatestDate());
+        assertEquals(6.5, summary.getWeight().getMax());
+        assertEquals(LocalDate.of(2022, 1, 1), summary.getWeight().getVelocityFromDate());
+        assertEquals(0, summary.getHeight().getCount());
+    }
+
+    @Test
+    void testSummary_LaterWritesAreIncremental() {
+        // Positive case: Only the first write builds the row; later writes update it without reading the records
+        addWeight(LocalDate.of(2022, 1, 1), 5.0);
+        growthSummaryRepository.insertIfAbsent(child.getId());
+        assertEquals(1, growthSummaryService.getSummary(child.getId()).getRecordCount());
+
+        // A record the summary does not know about is only picked up by a recompute
+        entityManager.persistAndFlush(new GrowthRecord(null, LocalDate.of(2021, 12, 1), null, 4.0,
+                GrowthRecord.GrowthType.PHYSICAL, GrowthRecord.StatusType.ACHIEVED, child));
+        addWeight(LocalDate.of(2022, 2, 1), 6.0);
+
+        GrowthSummaryDTO summary = growthSummaryService.getSummary(child.getId());
+        assertEquals(2, summary.getRecordCount());
+        assertEquals(5.0, summary.getWeight().getMin());
+        assertEquals(6.0, summary.getWeight().getLatestValue());
+    }
+
+    @Test
+    void testSummary_UnbuiltRowIsBuiltOnRead() {
+        // Negative case: A row inserted ahead of its first build is not served as an empty summary
+        addWeight(LocalDate.of(2022, 1, 1), 5.0);
+        growthSummaryRepository.deleteByChildId(child.getId());
+        growthSummaryRepository.insertIfAbsent(child.getId());
+        entityManager.clear();
+
+        assertEquals(1, growthSummaryService.getSummary(child.getId()).getRecordCount());
+    }
+
+    @Test
+    void testSummary_IncrementalMatchesRebuild() {
+        // Positive case: Random adds, edits of historical dates and deletes leave the same summary as a rebuild
+        Random random = new Random(42);
+        List<Long> ids = new ArrayList<>();
+        LocalDate start = LocalDate.of(2022, 1, 1);
+        for (int operation = 0; operation < 300; operation++) {
+            int action = ids.isEmpty() ? 0 : random.nextInt(10);
+            LocalDate date = start.plusDays(random.nextInt(700));
+            Double height = random.nextInt(4) == 0 ? null : 50.0 + random.nextInt(40);
+            Double weight = random.nextInt(4) == 0 ? null : 3.0 + random.nextInt(15);
+            if (action < 6) {
+                ids.add(growthRecordService.addForChild(child.getId(), null, date, height, weight,
+                        GrowthRecord.GrowthType.PHYSICAL, GrowthRecord.StatusType.ACHIEVED).getId());
+            } else if (action < 8) {
+                growthRecordService.editForChild(child.getId(), ids.get(random.nextInt(ids.size())), null,
+                        date, height, weight, null, null);
+            } else {
+                growthRecordService.deleteForChild(child.getId(), ids.remove(random.nextInt(ids.size())));
+            }
+        }
+
+        GrowthSummaryDTO incremental = growthSummaryService.getSummary(child.getId());
+        growthSummaryRepository.deleteByChildId(child.getId());
+        entityManager.flush();
+        entityManager.clear();
+        GrowthSummaryDTO rebuilt = growthSummaryService.getSummary(child.getId());
+
+        assertEquals(ids.size(), rebuilt.getRecordCount());
+        assertEquals(rebuilt, incremental);
+    }
+
+    private GrowthImportReportDTO importRows(GrowthRecordImportService.Format format, String content) throws IOException {
+        return growthRecordImportService.importForChild(child.getId(), format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testImport_CsvReportsInvalidRows() throws IOException {
+        // Positive case: Valid rows are saved, invalid ones are reported by line and skipped
+        String csv = """
+                date_of_record,height,weight,status,additionalInfo
+                2022-02-01,54.5,4.6,,"Clinic visit, first month"
+                2022-03-01,,5.5,NOT_ACHIEVED,
+
+                2022-04-01,abc,6.0,,
+                2022-05-01,,,,
+                not-a-date,60,6.5,,
+                2022-06-01,-1,7.0,,
+                2022-07-01,66.0,7.5,ACHIEVED,"Said ""mama""\"
+                2022-08-01,68.0
+                """;
+
+        GrowthImportReportDTO report = importRows(GrowthRecordImportService.Format.CSV, csv);
+
+        assertEquals(8, report.getRowsRead());
+        assertEquals(3, report.getImported());
+        assertEquals(5, report.getRejected());
+        assertFalse(report.isErrorsTruncated());
+        assertEquals(List.of(5L, 6L, 7L, 8L, 10L), report.getErrors().stream().map(GrowthImportReportDTO.RowError::getLine).toList());
+        assertEquals("height must be a number", report.getErrors().get(0).getMessage());
+
+        entityManager.flush();
+        entityManager.clear();
+        List<GrowthRecord> records = growthRecordRepository.findAll().stream()
+                .filter(r -> r.getChild().getId().equals(child.getId()))
+                .sorted((a, b) -> a.getDateOfRecord().compareTo(b.getDateOfRecord()))
+                .toList();
+        assertEquals(3, records.size());
+        assertEquals("Clinic visit, first month", records.get(0).getAdditionalInfo());
+        assertEquals(GrowthRecord.GrowthType.PHYSICAL, records.get(0).getType());
+        assertEquals(GrowthRecord.StatusType.NOT_ACHIEVED, records.get(1).getStatus());
+        assertNull(records.get(1).getHeight());
+        assertEquals("Said \"mama\"", records.get(2).getAdditionalInfo());
+
+        // The summary is rebuilt once the rows are in
+        GrowthSummaryDTO summary = growthSummaryService.getSummary(child.getId());
+        assertEquals(3, summary.getRecordCount());
+        assertEquals(7.5, summary.getWeight().getLatestValue());
+    }
+
+    @Test
+    void testImport_AbortedUploadKeepsSummaryInStep() {
+        // Negative case: The stream fails after the first chunk, whose rows stay imported and counted
+        addWeight(LocalDate.of(2021, 12, 1), 3.5);
+        StringBuilder ndjson = new StringBuilder();
+        for (int day = 0; day < 150; day++) {
+            ndjson.append("{\"dateOfRecord\":\"").append(LocalDate.of(2022, 1, 1).plusDays(day))
+                    .append("\",\"weight\":4.0}\n");
+        }
+        InputStream aborted = new SequenceInputStream(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset");
+                    }
+                });
+
+        assertThrows(IOException.class, () -> growthRecordImportService.importForChild(child.getId(),
+                GrowthRecordImportService.Format.NDJSON, aborted));
+
+        assertEquals(101, growthRecordRepository.countByChildId(child.getId()));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(101, growthSummaryService.getSummary(child.getId()).getRecordCount());
+    }
+
+    @Test
+    void testImport_NdjsonAcrossChunks() throws IOException {
+        // Positive case: Rows spanning many chunks are all saved, with one error list capped at the limit
+        StringBuilder ndjson = new StringBuilder();
+        LocalDate start = LocalDate.of(2022, 1, 1);
+        for (int day = 0; day < 1000; day++) {
+            ndjson.append("{\"dateOfRecord\":\"").append(start.plusDays(day))
+                    .append("\",\"weight\":").append(3.0 + day / 100.0)
+                    .append(",\"type\":\"physical\"}\n");
+        }
+        for (int i = 0; i < 7; i++) {
+            ndjson.append(i % 2 == 0 ? "{not json\n" : "{\"dateOfRecord\":\"2022-01-01\",\"weight\":5,\"status\":\"DONE\"}\n");
+        }
+
+        GrowthImportReportDTO report = importRows(GrowthRecordImportService.Format.NDJSON, ndjson.toString());
+
+        assertEquals(1007, report.getRowsRead());
+        assertEquals(1000, report.getImported());
+        assertEquals(7, report.getRejected());
+        assertEquals(5, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+        assertEquals("Not valid JSON", report.getErrors().get(0).getMessage());
+        assertEquals(1000, growthRecordRepository.countByChildId(child.getId()));
+        assertEquals(1000, growthSummaryService.getSummary(child.getId()).getWeight().getCount());
+    }
+
+    @Test
+    void testImport_InvalidUpload() {
+        // Negative case: An unknown CSV column, or a child of another family, rejects the whole upload
+        assertThrows(IllegalArgumentException.class,
+                () -> importRows(GrowthRecordImportService.Format.CSV, "dateOfRecord,shoeSize\n2022-01-01,20\n"));
+
+        Family other = entityManager.persistAndFlush(new Family());
+        Child stranger = entityManager.persistAndFlush(new Child("Noah Brown", true, LocalDate.of(2022, 1, 1), null, other));
+        assertThrows(IllegalArgumentException.class, () -> growthRecordImportService.importForChild(stranger.getId(),
+                GrowthRecordImportService.Format.CSV, new ByteArrayInputStream("dateOfRecord,weight\n2022-01-01,5\n".getBytes())));
+        assertEquals(0, growthRecordRepository.countByChildId(child.getId()));
+    }
+}
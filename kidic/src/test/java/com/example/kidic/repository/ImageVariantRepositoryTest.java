@@ -0,0 +1,139 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.entity.ImageVariant;
+import com.example.kidic.service.BlobStore;
+import com.example.kidic.service.FileSystemBlobStore;
+import com.example.kidic.service.ImageVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ImageVariantService.class, FileSystemBlobStore.class})
+class ImageVariantRepositoryTest {
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        imageVariantRepository.deleteAll();
+    }
+
+    private String storeImage(int width, int height, int type, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return blobStore.put(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    void testCreateVariants_ScalesToEachSize() throws Exception {
+        // Positive case: A landscape photo gets a thumbnail and a medium variant, keeping the aspect ratio
+        String hash = storeImage(2000, 1000, BufferedImage.TYPE_INT_RGB, "png");
+
+        List<ImageVariant> variants = imageVariantService.createVariants(hash);
+        assertEquals(2, variants.size());
+
+        ImageVariant thumbnail = imageVariantRepository.findByOriginalHashAndSize(hash, ImageVariant.Size.THUMBNAIL).orElseThrow();
+        assertEquals(128, thumbnail.getWidth());
+        assertEquals(64, thumbnail.getHeight());
+        assertEquals("image/jpeg", thumbnail.getContentType());
+        assertEquals(blobStore.size(thumbnail.getVariantHash()), thumbnail.getByteSize());
+
+        ImageVariant medium = imageVariantRepository.findByOriginalHashAndSize(hash, ImageVariant.Size.MEDIUM).orElseThrow();
+        assertEquals(512, medium.getWidth());
+        assertEquals(256, medium.getHeight());
+
+        BufferedImage decoded = ImageIO.read(blobStore.open(thumbnail.getVariantHash()));
+        assertEquals(128, decoded.getWidth());
+    }
+
+    @Test
+    void testCreateVariants_KeepsTransparencyAsPng() throws Exception {
+        // Positive case: Images with an alpha channel are not flattened to JPEG
+        String hash = storeImage(300, 600, BufferedImage.TYPE_INT_ARGB, "png");
+
+        imageVariantService.createVariants(hash);
+
+        ImageVariant thumbnail = imageVariantRepository.findByOriginalHashAndSize(hash, ImageVariant.Size.THUMBNAIL).orElseThrow();
+        assertEquals("image/png", thumbnail.getContentType());
+        assertEquals(64, thumbnail.getWidth());
+        assertEquals(128, thumbnail.getHeight());
+    }
+
+    @Test
+    void testCreateVariants_SmallImageIsNotEnlarged() throws Exception {
+        // Positive case: Variants never upscale the original
+        String hash = storeImage(100, 50, BufferedImage.TYPE_INT_RGB, "png");
+
+        imageVariantService.createVariants(hash);
+
+        ImageVariant medium = imageVariantRepository.findByOriginalHashAndSize(hash, ImageVariant.Size.MEDIUM).orElseThrow();
+        assertEquals(100, medium.getWidth());
+        assertEquals(50, medium.getHeight());
+    }
+
+    @Test
+    void testCreateVariants_IsIdempotent() throws Exception {
+        // Positive case: Uploading the same content again reuses the existing variants
+        String hash = storeImage(400, 400, BufferedImage.TYPE_INT_RGB, "png");
+
+        imageVariantService.createVariants(hash);
+        imageVariantService.createVariants(hash);
+
+        assertEquals(2, imageVariantRepository.findByOriginalHash(hash).size());
+    }
+
+    @Test
+    void testCreateVariants_NotAnImage() throws Exception {
+        // Negative case: Content ImageIO cannot decode has no variants and does not fail
+        String hash = blobStore.put(new ByteArrayInputStream("%PDF-1.4 not an image".getBytes()));
+
+        List<ImageVariant> variants = imageVariantService.createVariants(hash);
+
+        assertTrue(variants.isEmpty());
+        assertTrue(imageVariantRepository.findByOriginalHash(hash).isEmpty());
+    }
+
+    @Test
+    void testFindVariant_OriginalRequested() {
+        // Negative case: No size, or no hash for images still in the database, means the original
+        assertTrue(imageVariantService.findVariant("a".repeat(64), null).isEmpty());
+        assertTrue(imageVariantService.findVariant(null, ImageVariant.Size.THUMBNAIL).isEmpty());
+    }
+
+    @Test
+    void testSizeFromParameter() {
+        assertEquals(ImageVariant.Size.THUMBNAIL, ImageVariant.Size.fromParameter("thumbnail"));
+        assertEquals(ImageVariant.Size.MEDIUM, ImageVariant.Size.fromParameter("MEDIUM"));
+        assertNull(ImageVariant.Size.fromParameter("original"));
+        assertNull(ImageVariant.Size.fromParameter(null));
+        assertThrows(IllegalArgumentException.class, () -> ImageVariant.Size.fromParameter("huge"));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.dto.MedicalRecordFileDTO;
+import com.example.kidic.dto.MedicalRecordResponseDTO;
+import com.example.kidic.entity.Child;
+import com.example.kidic.entity.Family;
+import com.example.kidic.entity.MedicalRecord;
+import com.example.kidic.service.BlobMigrationJob;
+import com.example.kidic.service.BlobStore;
+import com.example.kidic.service.DatabaseBlobReader;
+import com.example.kidic.service.FileSystemBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({DatabaseBlobReader.class, FileSystemBlobStore.class, BlobMigrationJob.class})
+class MedicalRecordRepositoryTest {
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private DatabaseBlobReader databaseBlobReader;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private BlobMigrationJob blobMigrationJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Child child;
+
+    @BeforeEach
+    void setUp() {
+        // Simulate a database created before attachments moved to the blob store
+        jdbcTemplate.execute("ALTER TABLE medical_records ADD COLUMN IF NOT EXISTS file_content BLOB");
+
+        // Clear database to ensure test isolation
+        medicalRecordRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        Family family = entityManager.persistAndFlush(new Family());
+        child = entityManager.persistAndFlush(new Child("Emma Smith", false, LocalDate.of(2020, 5, 15), null, family));
+    }
+
+    private MedicalRecord persistRecordWithFile(long fileSize, String fileHash) {
+        MedicalRecord record = new MedicalRecord(MedicalRecord.MedicalRecordType.CHECKUP, LocalDate.of(2024, 1, 15),
+                "Checkup", MedicalRecord.FileType.PDF, MedicalRecord.StatusType.ACTIVE, child);
+        record.setFileName("scan.pdf");
+        record.setFileHash(fileHash);
+        record.setFileSize(fileSize);
+        record.setFileContentType("application/pdf");
+        record = entityManager.persistAndFlush(record);
+        entityManager.clear();
+        return record;
+    }
+
+    private MedicalRecord persistLegacyRecord(byte[] content) {
+        MedicalRecord record = persistRecordWithFile(content.length, null);
+        jdbcTemplate.update("UPDATE medical_records SET file_content = ? WHERE id = ?", content, record.getId());
+        return record;
+    }
+
+    private static byte[] sampleContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    @Test
+    void testFindFileById_Success() {
+        // Positive case: Attachment metadata is returned without the content
+        MedicalRecord record = persistRecordWithFile(17L, "a".repeat(64));
+
+        Optional<MedicalRecordFileDTO> file = medicalRecordRepository.findFileById(record.getId());
+        assertTrue(file.isPresent(), "File metadata should be found");
+        assertEquals(child.getId(), file.get().getChildId());
+        assertEquals("scan.pdf", file.get().getFileName());
+        assertEquals(17L, file.get().getFileSize());
+        assertEquals("application/pdf", file.get().getFileContentType());
+        assertEquals("a".repeat(64), file.get().getFileHash());
+    }
+
+    @Test
+    void testFindFileById_NonExistentRecord() {
+        // Negative case: Unknown record id
+        assertTrue(medicalRecordRepository.findFileById(999L).isEmpty(), "No metadata should be found");
+    }
+
+    @Test
+    void testFindSummariesByChildId_Success() {
+        // Positive case: Metadata of every record of the child, newest first
+        persistRecordWithFile(5L, "a".repeat(64));
+        MedicalRecord newer = new MedicalRecord(MedicalRecord.MedicalRecordType.VACCINATION, LocalDate.of(2024, 6, 1),
+                "MMR", null, MedicalRecord.StatusType.COMPLETED, child);
+        newer = entityManager.persistAndFlush(newer);
+
+        List<MedicalRecordResponseDTO> summaries = medicalRecordRepository.findSummariesByChildId(child.getId());
+        assertEquals(2, summaries.size(), "Two records should be found for the child");
+        assertEquals(newer.getId(), summaries.get(0).getId(), "Newest record should come first");
+        assertEquals("Emma Smith", summaries.get(0).getChildName());
+        assertNull(summaries.get(0).getFileSize());
+        assertEquals("scan.pdf", summaries.get(1).getFileName());
+        assertEquals(5L, summaries.get(1).getFileSize());
+    }
+
+    @Test
+    void testFindSummariesByChildId_NonExistentChild() {
+        // Negative case: Unknown child id
+        persistRecordWithFile(5L, "a".repeat(64));
+        assertTrue(medicalRecordRepository.findSummariesByChildId(999L).isEmpty(), "No records should be found");
+    }
+
+    @Test
+    void testFindSummaryById_Success() {
+        // Positive case: Single record metadata
+        MedicalRecord record = persistRecordWithFile(5L, "a".repeat(64));
+
+        Optional<MedicalRecordResponseDTO> summary = medicalRecordRepository.findSummaryById(record.getId());
+        assertTrue(summary.isPresent(), "Record should be found");
+        assertEquals(MedicalRecord.MedicalRecordType.CHECKUP, summary.get().getType());
+        assertEquals(child.getId(), summary.get().getChildId());
+    }
+
+    @Test
+    void testCopyRange_StreamsLegacyColumnAcrossChunks() throws Exception {
+        // Positive case: Legacy content larger than one chunk is streamed back byte for byte
+        byte[] content = sampleContent(DatabaseBlobReader.CHUNK_SIZE * 2 + 123);
+        MedicalRecord record = persistLegacyRecord(content);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        databaseBlobReader.copyRange(DatabaseBlobReader.BlobColumn.MEDICAL_RECORD_FILE, record.getId(), 0, content.length, out);
+        assertArrayEquals(content, out.toByteArray());
+
+        ByteArrayOutputStream range = new ByteArrayOutputStream();
+        databaseBlobReader.copyRange(DatabaseBlobReader.BlobColumn.MEDICAL_RECORD_FILE, record.getId(), 70000, 100, range);
+        assertArrayEquals(Arrays.copyOfRange(content, 70000, 70100), range.toByteArray());
+    }
+
+    @Test
+    void testBlobMigration_MovesLegacyContentToBlobStore() throws Exception {
+        // Positive case: Legacy content is moved to the blob store, deduplicated and cleared from the table
+        byte[] content = sampleContent(DatabaseBlobReader.CHUNK_SIZE + 10);
+        MedicalRecord first = persistLegacyRecord(content);
+        MedicalRecord second = persistLegacyRecord(content);
+
+        int migrated = blobMigrationJob.migrate(DatabaseBlobReader.BlobColumn.MEDICAL_RECORD_FILE);
+        assertEquals(2, migrated, "Both legacy rows should be migrated");
+
+        String firstHash = medicalRecordRepository.findFileById(first.getId()).orElseThrow().getFileHash();
+        String secondHash = medicalRecordRepository.findFileById(second.getId()).orElseThrow().getFileHash();
+        assertNotNull(firstHash);
+        assertEquals(firstHash, secondHash, "Identical content should share one blob");
+        assertEquals(content.length, blobStore.size(firstHash));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blobStore.copyRange(firstHash, 0, content.length, out);
+        assertArrayEquals(content, out.toByteArray());
+
+        Integer remaining = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM medical_records WHERE file_content IS NOT NULL", Integer.class);
+        assertEquals(0, remaining, "Legacy column should be cleared");
+    }
+}
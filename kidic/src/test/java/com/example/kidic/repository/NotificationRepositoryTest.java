@@ -0,0 +1,388 @@
+package com.example.kidic.repository;
+
+import com.example.kidic.dto.MarkNotificationsReadRequestDTO;
+import com.example.kidic.dto.NotificationFeedPageDTO;
+import com.example.kidic.dto.NotificationResponseDTO;
+import com.example.kidic.dto.UnreadCountDTO;
+import com.example.kidic.entity.BroadcastCounter;
+import com.example.kidic.entity.BroadcastNotification;
+import com.example.kidic.entity.BroadcastNotificationRead;
+import com.example.kidic.entity.Notification;
+import com.example.kidic.entity.NotificationCounter;
+import com.example.kidic.entity.OutboxMessage;
+import com.example.kidic.service.NotificationCounterService;
+import com.example.kidic.service.NotificationOutbox;
+import com.example.kidic.service.NotificationOutboxDispatcher;
+import com.example.kidic.service.NotificationPusher;
+import com.example.kidic.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({NotificationService.class, NotificationCounterService.class, NotificationPusher.class,
+        NotificationOutbox.class, NotificationOutboxDispatcher.class})
+class NotificationRepositoryTest {
+
+    private static final Long PARENT_ID = 1L;
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Autowired
+    private BroadcastNotificationReadRepository broadcastNotificationReadRepository;
+
+    @Autowired
+    private BroadcastCounterRepository broadcastCounterRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationCounterService notificationCounterService;
+
+    @Autowired
+    private NotificationOutboxDispatcher notificationOutboxDispatcher;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private SimpMessageSendingOperations messagingTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Clear database to ensure test isolation
+        notificationRepository.deleteAll();
+        notificationCounterRepository.deleteAll();
+        outboxMessageRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Notification persistNotification(Long parentId, LocalDateTime createdAt, boolean read) {
+        Notification notification = new Notification();
+        notification.setParentId(parentId);
+        notification.setContent("Notification at " + createdAt);
+        notification.setIsRead(read);
+        notification.setCreatedAt(createdAt);
+        return entityManager.persistAndFlush(notification);
+    }
+
+    private BroadcastNotification persistBroadcast(LocalDateTime createdAt) {
+        BroadcastNotification broadcast = new BroadcastNotification();
+        broadcast.setContent("Broadcast at " + createdAt);
+        broadcast.setCreatedAt(createdAt);
+        return entityManager.persistAndFlush(broadcast);
+    }
+
+    @Test
+    void testFindFeedPageBefore_Success() {
+        // Positive case: Rows strictly after the (createdAt, id) cursor, including ties on createdAt
+        Notification first = persistNotification(PARENT_ID, NOON, false);
+        Notification second = persistNotification(PARENT_ID, NOON, false);
+        Notification older = persistNotification(PARENT_ID, NOON.minusHours(1), false);
+        persistNotification(2L, NOON.minusHours(2), false);
+
+        List<NotificationResponseDTO> page = notificationRepository.findFeedPageBefore(
+                PARENT_ID, NOON, second.getId(), PageRequest.of(0, 10));
+        assertEquals(List.of(first.getId(), older.getId()), page.stream().map(NotificationResponseDTO::getId).toList(),
+                "Only the parent's rows after the cursor should be returned, newest first");
+    }
+
+    @Test
+    void testFindFeedPage_Limit() {
+        // Positive case: First page is limited and ordered newest first
+        persistNotification(PARENT_ID, NOON.minusHours(2), false);
+        Notification newest = persistNotification(PARENT_ID, NOON, false);
+
+        List<NotificationResponseDTO> page = notificationRepository.findFeedPage(PARENT_ID, PageRequest.of(0, 1));
+        assertEquals(1, page.size(), "Page should be limited");
+        assertEquals(newest.getId(), page.get(0).getId(), "Newest notification should come first");
+    }
+
+    @Test
+    void testCountByParentIdAndIsReadFalse() {
+        // Positive case: Only the parent's unread notifications are counted
+        persistNotification(PARENT_ID, NOON, false);
+        persistNotification(PARENT_ID, NOON, true);
+        persistNotification(2L, NOON, false);
+
+        assertEquals(1, notificationRepository.countByParentIdAndIsReadFalse(PARENT_ID));
+    }
+
+    @Test
+    void testAddUnread_NoCounterRow() {
+        // Negative case: Nothing is updated before the counter row exists
+        assertEquals(0, notificationCounterRepository.addUnread(PARENT_ID, 1));
+    }
+
+    @Test
+    void testAddUnread_Success() {
+        // Positive case: Counter is adjusted in place
+        entityManager.persistAndFlush(new NotificationCounter(PARENT_ID, 3, 0));
+
+        assertEquals(1, notificationCounterRepository.addUnread(PARENT_ID, -1));
+        assertEquals(2, notificationCounterRepository.findById(PARENT_ID).orElseThrow().getUnreadCount());
+    }
+
+    @Test
+    void testInsertIfAbsent_ExistingCounterRow() {
+        // Negative case: A counter row created concurrently is left as it is
+        entityManager.persistAndFlush(new NotificationCounter(PARENT_ID, 3, 1));
+
+        notificationCounterRepository.insertIfAbsent(PARENT_ID, 7, 0);
+        notificationCounterRepository.insertIfAbsent(2L, 7, 0);
+
+        assertEquals(3, notificationCounterRepository.findById(PARENT_ID).orElseThrow().getUnreadCount());
+        assertEquals(7, notificationCounterRepository.findById(2L).orElseThrow().getUnreadCount());
+    }
+
+    @Test
+    void testAddUnread_CreatesCounterRowWithoutCountingTwice() {
+        // Positive case: The delta is applied once to a row created from counts that already include it
+        persistNotification(PARENT_ID, NOON, false);
+        persistNotification(PARENT_ID, NOON, false);
+        BroadcastNotification broadcast = persistBroadcast(NOON);
+        entityManager.persistAndFlush(new BroadcastNotificationRead(broadcast.getId(), 2L));
+
+        notificationCounterService.addUnread(PARENT_ID, 1);
+        notificationCounterService.addBroadcastsRead(2L, 1);
+
+        assertEquals(2, notificationCounterRepository.findById(PARENT_ID).orElseThrow().getUnreadCount());
+        assertEquals(1, notificationCounterRepository.findById(2L).orElseThrow().getBroadcastsRead());
+    }
+
+    @Test
+    void testUnreadCount_CountsNewBroadcasts() {
+        // Positive case: Broadcasts created after the counters exist are counted without a table scan
+        persistBroadcast(NOON);
+        assertEquals(1, notificationService.getUnreadCount(PARENT_ID));
+
+        notificationService.createBroadcastNotification("Maintenance tonight", Notification.NotificationType.GENERAL);
+        notificationService.createBroadcastNotification("Maintenance done", Notification.NotificationType.GENERAL);
+
+        assertEquals(3, broadcastCounterRepository.findById(BroadcastCounter.ID).orElseThrow().getBroadcastCount());
+        assertEquals(3, notificationService.getUnreadCount(PARENT_ID));
+    }
+
+    @Test
+    void testFeedPaging_MergesPersonalAndBroadcastWithoutGapsOrDuplicates() {
+        // Positive case: Walking the feed page by page returns every entry exactly once, in feed order
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            LocalDateTime at = NOON.minusMinutes(i);
+            Notification notification = persistNotification(PARENT_ID, at, false);
+            BroadcastNotification broadcast = persistBroadcast(at);
+            expected.add("P" + notification.getId());
+            expected.add("B" + broadcast.getId());
+        }
+        persistNotification(2L, NOON, false);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            NotificationFeedPageDTO page = notificationService.getFeedPage(PARENT_ID, cursor, 3);
+            page.getItems().forEach(item -> seen.add((item.isBroadcast() ? "B" : "P") + item.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, seen, "Feed should list every entry once, personal first at equal instants");
+    }
+
+    @Test
+    void testUnreadCount_TracksPersonalAndBroadcastReads() {
+        // Positive case: Counter follows reads of personal and broadcast notifications
+        Notification notification = persistNotification(PARENT_ID, NOON, false);
+        persistNotification(PARENT_ID, NOON, false);
+        BroadcastNotification broadcast = persistBroadcast(NOON);
+        persistBroadcast(NOON);
+
+        assertEquals(4, notificationService.getUnreadCount(PARENT_ID), "Two personal and two broadcasts are unread");
+
+        notificationService.markAsRead(notification.getId());
+        notificationService.markAsRead(notification.getId());
+        notificationService.markBroadcastAsRead(broadcast.getId(), PARENT_ID);
+        notificationService.markBroadcastAsRead(broadcast.getId(), PARENT_ID);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, notificationService.getUnreadCount(PARENT_ID), "Repeated reads should count once");
+        assertEquals(1, entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(r) FROM BroadcastNotificationRead r", Long.class).getSingleResult());
+    }
+
+    @Test
+    void testGetFeedPage_InvalidCursor() {
+        // Negative case: Cursor that was not issued by the server
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getFeedPage(PARENT_ID, "not-a-cursor", 10));
+    }
+
+    @Test
+    void testMarkReadUpTo_ScopedToParent() {
+        // Positive case: One UPDATE marks the parent's notifications up to the id, other parents untouched
+        Notification first = persistNotification(PARENT_ID, NOON, false);
+        Notification second = persistNotification(PARENT_ID, NOON, false);
+        Notification later = persistNotification(PARENT_ID, NOON, false);
+        Notification otherParent = persistNotification(2L, NOON, false);
+
+        assertEquals(2, notificationRepository.markReadUpTo(PARENT_ID, second.getId()));
+        assertTrue(notificationRepository.findById(first.getId()).orElseThrow().getIsRead());
+        assertTrue(notificationRepository.findById(second.getId()).orElseThrow().getIsRead());
+        assertFalse(notificationRepository.findById(later.getId()).orElseThrow().getIsRead(),
+                "Notification after the id should stay unread");
+
+        assertEquals(1, notificationRepository.markReadUpTo(PARENT_ID, otherParent.getId()));
+        assertFalse(notificationRepository.findById(otherParent.getId()).orElseThrow().getIsRead(),
+                "Other parent's notification should stay unread");
+        assertEquals(0, notificationRepository.markReadUpTo(PARENT_ID, otherParent.getId()), "Repeating is a no-op");
+    }
+
+    @Test
+    void testMarkReadByIds_ScopedToParent() {
+        // Negative case: Ids of another parent are ignored
+        Notification own = persistNotification(PARENT_ID, NOON, false);
+        Notification otherParent = persistNotification(2L, NOON, false);
+
+        assertEquals(1, notificationRepository.markReadByIds(PARENT_ID, List.of(own.getId(), otherParent.getId())));
+        assertFalse(notificationRepository.findById(otherParent.getId()).orElseThrow().getIsRead());
+    }
+
+    @Test
+    void testMarkBroadcastsReadUpTo_InsertsMissingReadRowsOnly() {
+        // Positive case: Read rows are inserted once per unread broadcast up to the id
+        BroadcastNotification first = persistBroadcast(NOON);
+        BroadcastNotification second = persistBroadcast(NOON);
+        BroadcastNotification later = persistBroadcast(NOON);
+        notificationService.markBroadcastAsRead(first.getId(), PARENT_ID);
+        entityManager.flush();
+
+        assertEquals(1, broadcastNotificationReadRepository.markReadUpTo(PARENT_ID, second.getId(), NOON));
+        assertTrue(broadcastNotificationReadRepository.existsByBroadcastIdAndParentId(second.getId(), PARENT_ID));
+        assertFalse(broadcastNotificationReadRepository.existsByBroadcastIdAndParentId(later.getId(), PARENT_ID));
+    }
+
+    @Test
+    void testMarkBroadcastAsRead_CountsRepeatedReadOnce() {
+        // Negative case: A second read of the same broadcast neither inserts nor counts again
+        BroadcastNotification broadcast = persistBroadcast(NOON);
+
+        notificationService.markBroadcastAsRead(broadcast.getId(), PARENT_ID);
+        notificationService.markBroadcastAsRead(broadcast.getId(), PARENT_ID);
+        notificationService.markBroadcastAsRead(broadcast.getId(), 2L);
+
+        assertTrue(broadcastNotificationReadRepository.findForUpdate(broadcast.getId(), PARENT_ID).isPresent());
+        assertEquals(1, broadcastNotificationReadRepository.countByParentId(PARENT_ID));
+        assertEquals(1, notificationCounterRepository.findById(PARENT_ID).orElseThrow().getBroadcastsRead());
+        assertEquals(1, notificationCounterRepository.findById(2L).orElseThrow().getBroadcastsRead());
+    }
+
+    @Test
+    void testBulkMarkAsRead_UpdatesCounterAndPushesIt() {
+        // Positive case: Bulk read updates the badge and pushes it to the parent's clients
+        Notification first = persistNotification(PARENT_ID, NOON, false);
+        persistNotification(PARENT_ID, NOON, false);
+        Notification last = persistNotification(PARENT_ID, NOON, false);
+        BroadcastNotification broadcast = persistBroadcast(NOON);
+        assertEquals(4, notificationService.getUnreadCount(PARENT_ID));
+
+        UnreadCountDTO unread = notificationService.markAsRead(PARENT_ID, MarkNotificationsReadRequestDTO.builder()
+                .ids(List.of(first.getId()))
+                .upToBroadcastId(broadcast.getId())
+                .build());
+        assertEquals(2, unread.getUnreadCount());
+
+        unread = notificationService.markAsRead(PARENT_ID, MarkNotificationsReadRequestDTO.builder()
+                .upToId(last.getId())
+                .build());
+        assertEquals(0, unread.getUnreadCount(), "Overlapping requests should not count twice");
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+
+        assertEquals(2, notificationOutboxDispatcher.dispatchPending());
+        verify(messagingTemplate).convertAndSendToUser(eq(String.valueOf(PARENT_ID)), eq("/queue/notifications"),
+                eq(new UnreadCountDTO(0)));
+        assertEquals(0, outboxMessageRepository.count());
+    }
+
+    @Test
+    void testBroadcast_DeliveredFromOutboxAfterRetry() {
+        // Positive case: A failed send stays in the outbox and is delivered by a later run
+        doThrow(new IllegalStateException("Broker unavailable"))
+                .doNothing()
+                .when(messagingTemplate).convertAndSend(eq("/topic/broadcasts"), any(Object.class));
+        NotificationResponseDTO broadcast = notificationService.createBroadcastNotification("Maintenance tonight",
+                Notification.NotificationType.GENERAL);
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+
+        assertEquals(0, notificationOutboxDispatcher.dispatchPending());
+        OutboxMessage message = outboxMessageRepository.findAll().get(0);
+        assertEquals(1, message.getAttempts());
+        assertEquals(OutboxMessage.Status.PENDING, message.getStatus());
+
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        assertEquals(1, notificationOutboxDispatcher.dispatchPending());
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/broadcasts"), eq(broadcast));
+        assertEquals(0, outboxMessageRepository.count());
+    }
+
+    @Test
+    void testUnreadCount_DeliveredFromOutboxAfterRetry() {
+        // Positive case: A failed unread count push is retried instead of being dropped
+        doThrow(new IllegalStateException("Outbound channel full"))
+                .doNothing()
+                .when(messagingTemplate).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+        Notification notification = persistNotification(PARENT_ID, NOON, false);
+        notificationService.markAsRead(PARENT_ID, MarkNotificationsReadRequestDTO.builder()
+                .ids(List.of(notification.getId()))
+                .build());
+
+        assertEquals(0, notificationOutboxDispatcher.dispatchPending());
+        OutboxMessage message = outboxMessageRepository.findAll().get(0);
+        assertEquals(1, message.getAttempts());
+        assertEquals(OutboxMessage.Kind.UNREAD_COUNT, message.getKind());
+
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        assertEquals(1, notificationOutboxDispatcher.dispatchPending());
+        verify(messagingTemplate, times(2)).convertAndSendToUser(String.valueOf(PARENT_ID),
+                NotificationPusher.DESTINATION, new UnreadCountDTO(0));
+        assertEquals(0, outboxMessageRepository.count());
+    }
+
+    @Test
+    void testBulkMarkAsRead_EmptyRequest() {
+        // Negative case: Request without a selector
+        assertThrows(IllegalArgumentException.class,
+                () -> notificationService.markAsRead(PARENT_ID, new MarkNotificationsReadRequestDTO()));
+    }
+}
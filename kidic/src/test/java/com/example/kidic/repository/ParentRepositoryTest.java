@@ -1,5 +1,8 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.config.ParentPrincipal;
+import com.example.kidic.dto.ParentProfilePictureDTO;
+import com.example.kidic.entity.Family;
 import com.example.kidic.entity.Parent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -124,4 +127,76 @@ class ParentRepositoryTest {
         boolean exists = parentRepository.existsByEmail("nonexistent@email.com");
         assertFalse(exists, "Non-existent email should not exist");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindPrincipalByEmail_Success() {
+        // Positive case: Security details are projected with the family id
+        Family family = entityManager.persistAndFlush(new Family());
+        Parent parent = new Parent("John Smith", "1234567890", "john.smith@email.com", true, "password");
+        parent.setFamily(family);
+        parent = entityManager.persistAndFlush(parent);
+
+        Optional<ParentPrincipal> principal = parentRepository.findPrincipalByEmail("john.smith@email.com");
+        assertTrue(principal.isPresent(), "Principal should be found by email");
+        assertEquals(parent.getId(), principal.get().getId(), "Id should match");
+        assertEquals(family.getId(), principal.get().getFamilyId(), "Family id should match");
+    }
+
+    @Test
+    void testFindPrincipalByEmail_WithoutFamily() {
+        // Positive case: Parent without a family has a null family id
+        entityManager.persistAndFlush(new Parent("John Smith", "1234567890", "john.smith@email.com", true, "password"));
+
+        Optional<ParentPrincipal> principal = parentRepository.findPrincipalByEmail("john.smith@email.com");
+        assertTrue(principal.isPresent(), "Principal should be found by email");
+        assertNull(principal.get().getFamilyId(), "Family id should be null");
+    }
+
+    @Test
+    void testFindPrincipalByEmail_NonExistentEmail() {
+        // Negative case: Unknown email
+        assertFalse(parentRepository.findPrincipalByEmail("nonexistent@email.com").isPresent(),
+                "No principal should be found for non-existent email");
+    }
+
+    @Test
+    void testFindProfilePictureById_Success() {
+        // Positive case: Picture metadata is loaded without the rest of the parent
+        Parent parent = new Parent("John Smith", "1234567890", "john.smith@email.com", true, "password");
+        parent.setProfilePictureType(Parent.ProfilePictureType.CUSTOM);
+        parent.setProfilePictureName("profile.jpg");
+        parent.setProfilePictureHash("a".repeat(64));
+        parent.setProfilePictureSize(18L);
+        parent.setProfilePictureContentType("image/jpeg");
+        parent = entityManager.persistAndFlush(parent);
+
+        Optional<ParentProfilePictureDTO> picture = parentRepository.findProfilePictureById(parent.getId());
+        assertTrue(picture.isPresent(), "Picture metadata should be found");
+        assertEquals("a".repeat(64), picture.get().getProfilePictureHash(), "Hash should match");
+        assertEquals(18L, picture.get().getProfilePictureSize(), "Size should match");
+        assertNull(picture.get().getFamilyId(), "Family id should be null");
+    }
+
+    @Test
+    void testFindProfilePictureById_NonExistentParent() {
+        // Negative case: Unknown parent id
+        assertFalse(parentRepository.findProfilePictureById(999L).isPresent(), "No picture should be found");
+    }
+
+    @Test
+    void testFindByFamilyId_Success() {
+        // Positive case: Only the parents of the given family are returned
+        Family family = entityManager.persistAndFlush(new Family());
+        Family otherFamily = entityManager.persistAndFlush(new Family());
+        Parent parent = new Parent("John Smith", "1234567890", "john.smith@email.com", true, "password");
+        parent.setFamily(family);
+        entityManager.persistAndFlush(parent);
+        Parent otherParent = new Parent("Jane Doe", "0987654321", "jane.doe@email.com", false, "password");
+        otherParent.setFamily(otherFamily);
+        entityManager.persistAndFlush(otherParent);
+
+        List<Parent> parents = parentRepository.findByFamilyId(family.getId());
+        assertEquals(1, parents.size());
+        assertEquals("john.smith@email.com", parents.get(0).getEmail());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.kidic.repository;
 
+import com.example.kidic.dto.ProductSummaryDTO;
 import com.example.kidic.entity.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -264,4 +265,39 @@ class ProductRepositoryTest {
             productRepository.findByDescriptionContaining(null);
         }, "findByDescriptionContaining should throw IllegalArgumentException for null description");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindCatalog_Success() {
+        // Positive case: Catalog rows in id order, with an image URL only for products that have an image
+        Product withImage = new Product("Blue Toy Car", "http://example.com/toy-car", "A fun blue toy car for kids",
+                Product.ImageType.CUSTOM, Product.CategoryType.TOYS);
+        withImage.setImageSize(2048L);
+        withImage.setImageContentType("image/png");
+        withImage = entityManager.persistAndFlush(withImage);
+        Product withoutImage = entityManager.persistAndFlush(new Product("Picture Book", "http://example.com/book",
+                "A picture book", Product.ImageType.IMAGE_1, Product.CategoryType.BOOKS));
+
+        List<ProductSummaryDTO> catalog = productRepository.findCatalog();
+        assertEquals(2, catalog.size());
+        assertEquals(withImage.getId(), catalog.get(0).getId());
+        assertEquals("/api/products/" + withImage.getId() + "/image", catalog.get(0).getImageUrl());
+        assertEquals(withoutImage.getId(), catalog.get(1).getId());
+        assertNull(catalog.get(1).getImageUrl());
+    }
+
+    @Test
+    void testFindCatalog_VersionedImageUrls() {
+        // Positive case: Images in the blob store get versioned URLs, including the thumbnail
+        Product product = new Product("Blue Toy Car", "http://example.com/toy-car", "A fun blue toy car for kids",
+                Product.ImageType.CUSTOM, Product.CategoryType.TOYS);
+        product.setImageSize(2048L);
+        product.setImageContentType("image/png");
+        product.setImageHash("0123456789abcdef".repeat(4));
+        product = entityManager.persistAndFlush(product);
+
+        ProductSummaryDTO summary = productRepository.findCatalog().get(0);
+        String base = "/api/products/" + product.getId() + "/image";
+        assertEquals(base + "?v=0123456789ab", summary.getImageUrl());
+        assertEquals(base + "?size=thumbnail&v=0123456789ab", summary.getThumbnailUrl());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.kidic.service;
+
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.config.JwtService;
+import com.example.kidic.dto.ChildResponseDTO;
+import com.example.kidic.entity.Child;
+import com.example.kidic.entity.DiseaseAndAllergy;
+import com.example.kidic.entity.Family;
+import com.example.kidic.entity.GrowthRecord;
+import com.example.kidic.entity.Meal;
+import com.example.kidic.entity.MedicalRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "kidic.export.page-size=2")
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ChildExportService.class, MedicalRecordService.class, FileStorageService.class, FileSystemBlobStore.class,
+        DatabaseBlobReader.class, ChildAccessGuard.class})
+class ChildExportServiceTest {
+
+    private static final String TOKEN = "token";
+
+    @Autowired
+    private ChildExportService childExportService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    private Family family;
+    private Child child;
+
+    @BeforeEach
+    void setUp() {
+        family = entityManager.persistAndFlush(new Family());
+        child = entityManager.persistAndFlush(new Child("Liam Smith", true, LocalDate.of(2022, 1, 1), null, family));
+        when(jwtService.extractFamilyId(TOKEN)).thenReturn(family.getId());
+    }
+
+    private Map<String, byte[]> export() throws Exception {
+        ChildResponseDTO exported = childExportService.getExportableChild(child.getId(), TOKEN);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        childExportService.writeArchive(exported, out);
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    void testWriteArchive_AllRecordsAcrossPages() throws Exception {
+        // Positive case: Every record type is exported, reading more rows than one page
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(new GrowthRecord(i == 0 ? "Clinic visit, said \"mama\"" : null,
+                    LocalDate.of(2022, 2, 1).plusMonths(i), 54.0 + i, 4.5 + i,
+                    GrowthRecord.GrowthType.PHYSICAL, GrowthRecord.StatusType.ACHIEVED, child));
+        }
+        for (int i = 0; i < 3; i++) {
+            Meal meal = new Meal("Puree " + i, List.of("carrot", "potato"), "Steam and blend");
+            meal.setChild(child);
+            entityManager.persist(meal);
+        }
+        entityManager.persist(new DiseaseAndAllergy(DiseaseAndAllergy.DiseaseAllergyType.ALLERGY, "Peanuts", null, child));
+
+        byte[] scan = "%PDF-1.4 lab results".getBytes(StandardCharsets.UTF_8);
+        MedicalRecord withFile = new MedicalRecord(MedicalRecord.MedicalRecordType.CHECKUP, LocalDate.of(2024, 1, 15),
+                "Checkup", MedicalRecord.FileType.PDF, MedicalRecord.StatusType.ACTIVE, child);
+        withFile.setFileName("lab results.pdf");
+        withFile.setFileHash(blobStore.put(new ByteArrayInputStream(scan)));
+        withFile.setFileSize((long) scan.length);
+        withFile.setFileContentType("application/pdf");
+        withFile = entityManager.persist(withFile);
+        entityManager.persist(new MedicalRecord(MedicalRecord.MedicalRecordType.VACCINATION, LocalDate.of(2024, 2, 1),
+                "Measles", null, MedicalRecord.StatusType.ACTIVE, child));
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<String, byte[]> entries = export();
+
+        String attachment = "attachments/" + withFile.getId() + "-lab_results.pdf";
+        assertEquals(List.of("child.json", "growth-records.csv", "meals.json", "diseases-and-allergies.json",
+                "medical-records.json", attachment), List.copyOf(entries.keySet()));
+
+        assertEquals("Liam Smith", objectMapper.readTree(entries.get("child.json")).get("name").asText());
+
+        String[] csv = new String(entries.get("growth-records.csv"), StandardCharsets.UTF_8).split("\n");
+        assertEquals(6, csv.length);
+        assertEquals("dateOfRecord,height,weight,type,status,additionalInfo", csv[0]);
+        assertEquals("2022-02-01,54.0,4.5,PHYSICAL,ACHIEVED,\"Clinic visit, said \"\"mama\"\"\"", csv[1]);
+        assertEquals("2022-06-01,58.0,8.5,PHYSICAL,ACHIEVED,", csv[5]);
+
+        JsonNode meals = objectMapper.readTree(entries.get("meals.json"));
+        assertEquals(3, meals.size());
+        assertEquals(2, meals.get(2).get("ingredients").size());
+
+        assertEquals("Peanuts", objectMapper.readTree(entries.get("diseases-and-allergies.json")).get(0).get("description").asText());
+
+        JsonNode records = objectMapper.readTree(entries.get("medical-records.json"));
+        assertEquals(2, records.size());
+        assertEquals(attachment, records.get(0).get("attachment").asText());
+        assertTrue(records.get(1).get("attachment").isNull());
+        assertFalse(records.get(0).has("downloadUrl"));
+
+        assertArrayEquals(scan, entries.get(attachment));
+    }
+
+    @Test
+    void testWriteArchive_EmptyChild() throws Exception {
+        // Positive case: A child without records still gets every file, with empty lists
+        Map<String, byte[]> entries = export();
+
+        assertEquals(5, entries.size());
+        assertEquals("dateOfRecord,height,weight,type,status,additionalInfo\n",
+                new String(entries.get("growth-records.csv"), StandardCharsets.UTF_8));
+        assertEquals(0, objectMapper.readTree(entries.get("meals.json")).size());
+        assertEquals(0, objectMapper.readTree(entries.get("medical-records.json")).size());
+    }
+
+    @Test
+    void testGetExportableChild_OtherFamily() {
+        // Negative case: A child of another family cannot be exported
+        Family other = entityManager.persistAndFlush(new Family());
+        Child stranger = entityManager.persistAndFlush(new Child("Noah Brown", true, LocalDate.of(2022, 1, 1), null, other));
+
+        assertThrows(IllegalArgumentException.class, () -> childExportService.getExportableChild(stranger.getId(), TOKEN));
+        when(jwtService.extractFamilyId(TOKEN)).thenReturn(UUID.randomUUID());
+        assertThrows(IllegalArgumentException.class, () -> childExportService.getExportableChild(child.getId(), TOKEN));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.kidic.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GrowthStandardsTest {
+
+    private static GrowthStandards standards;
+
+    @BeforeAll
+    static void load() throws Exception {
+        standards = new GrowthStandards(new ClassPathResource("growth/who-lms.csv"));
+    }
+
+    @Test
+    void testZScore_MedianIsFiftiethPercentile() {
+        double z = standards.zScore(GrowthStandards.Indicator.WEIGHT, true, 0, 3.3464);
+        assertEquals(0, z, 1e-9);
+        assertEquals(50, GrowthStandards.percentile(z), 1e-6);
+    }
+
+    @Test
+    void testZScore_MatchesPublishedCutOffs() {
+        // WHO tables: boys weigh 2.46 kg at -2 SD at birth (published rounded as 2.5),
+        // girls are 80.7 cm at 18 months on the median
+        assertEquals(-2, standards.zScore(GrowthStandards.Indicator.WEIGHT, true, 0, 2.459), 0.01);
+        assertEquals(0, standards.zScore(GrowthStandards.Indicator.LENGTH, false, 18, 80.7079), 1e-9);
+        assertEquals(2, standards.zScore(GrowthStandards.Indicator.LENGTH, true, 0, 49.8842 * (1 + 2 * 0.03795)), 1e-9);
+    }
+
+    @Test
+    void testZScore_InterpolatesBetweenMonths() {
+        double atSix = standards.zScore(GrowthStandards.Indicator.WEIGHT, false, 6, 7.5);
+        double atSixAndHalf = standards.zScore(GrowthStandards.Indicator.WEIGHT, false, 6.5, 7.5);
+        double atSeven = standards.zScore(GrowthStandards.Indicator.WEIGHT, false, 7, 7.5);
+        assertTrue(atSix > atSixAndHalf && atSixAndHalf > atSeven, "The same weight ranks lower as the child gets older");
+    }
+
+    @Test
+    void testZScore_RestrictedBeyondThreeSd() {
+        // Continuous at +3 SD, then linear in units of the 2-3 SD interval
+        double sd2 = 3.3464 * Math.pow(1 + 0.3487 * 0.14602 * 2, 1 / 0.3487);
+        double sd3 = 3.3464 * Math.pow(1 + 0.3487 * 0.14602 * 3, 1 / 0.3487);
+        assertEquals(3, standards.zScore(GrowthStandards.Indicator.WEIGHT, true, 0, sd3), 1e-9);
+        assertEquals(4, standards.zScore(GrowthStandards.Indicator.WEIGHT, true, 0, sd3 + (sd3 - sd2)), 1e-9);
+    }
+
+    @Test
+    void testZScore_OutsideReference() {
+        assertTrue(Double.isNaN(standards.zScore(GrowthStandards.Indicator.WEIGHT, true, -1, 3.0)));
+        assertTrue(Double.isNaN(standards.zScore(GrowthStandards.Indicator.WEIGHT, true, standards.getMaxMonth() + 0.5, 20.0)));
+        assertTrue(Double.isNaN(standards.zScore(GrowthStandards.Indicator.LENGTH, true, 12, 0)));
+        assertFalse(Double.isNaN(standards.zScore(GrowthStandards.Indicator.LENGTH, true, standards.getMaxMonth(), 110.0)));
+    }
+
+    @Test
+    void testPercentile() {
+        assertEquals(97.5, GrowthStandards.percentile(1.959964), 1e-4);
+        assertEquals(2.275, GrowthStandards.percentile(-2), 1e-3);
+        assertTrue(Double.isNaN(GrowthStandards.percentile(Double.NaN)));
+    }
+
+    @Test
+    void testAgeInMonths() {
+        assertEquals(12, GrowthStandards.ageInMonths(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)), 0.05);
+    }
+
+    @Test
+    void testLoad_RejectsTableWithoutBirth() {
+        String csv = "WEIGHT,M,1,0.2,4.4,0.13\nWEIGHT,M,2,0.2,5.5,0.12\n";
+        assertThrows(IllegalStateException.class,
+                () -> new GrowthStandards(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testZScore_FullHistoryDoesNotAllocate() {
+        // Stands in for a JMH run: a weekly history over the whole reference, evaluated
+        // repeatedly, must not allocate at all once the loop is compiled
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int points = (int) (standards.getMaxMonth() * GrowthStandards.DAYS_PER_MONTH / 7);
+        double[] ages = new double[points];
+        double[] weights = new double[points];
+        double[] heights = new double[points];
+        for (int i = 0; i < points; i++) {
+            ages[i] = i * 7 / GrowthStandards.DAYS_PER_MONTH;
+            weights[i] = 3.3 + ages[i] * 0.25;
+            heights[i] = 50 + ages[i] * 1.0;
+        }
+
+        double sink = 0;
+        for (int round = 0; round < 200; round++) {
+            sink += evaluate(ages, weights, heights);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int round = 0; round < 100; round++) {
+            sink += evaluate(ages, weights, heights);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertFalse(Double.isNaN(sink));
+        // One boxed double per evaluation would be over a megabyte here
+        assertTrue(allocated < 1024, "Evaluation allocated " + allocated + " bytes");
+    }
+
+    private static double evaluate(double[] ages, double[] weights, double[] heights) {
+        double sum = 0;
+        for (int i = 0; i < ages.length; i++) {
+            sum += GrowthStandards.percentile(standards.zScore(GrowthStandards.Indicator.WEIGHT, true, ages[i], weights[i]));
+            sum += GrowthStandards.percentile(standards.zScore(GrowthStandards.Indicator.LENGTH, true, ages[i], heights[i]));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.kidic.service;
+
+import com.example.kidic.config.ChildAccessGuard;
+import com.example.kidic.entity.Child;
+import com.example.kidic.entity.Family;
+import com.example.kidic.entity.GrowthRecord;
+import com.example.kidic.entity.GrowthSummary;
+import com.example.kidic.repository.ChildRepository;
+import com.example.kidic.repository.FamilyRepository;
+import com.example.kidic.repository.GrowthRecordRepository;
+import com.example.kidic.repository.GrowthSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The job rebuilds on its own threads and transactions, so these tests commit their data
+ * instead of running in the usual rolled back test transaction
+ */
+@DataJpaTest(properties = "kidic.growth.summary.rebuild.batch-size=2")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({GrowthSummaryRebuildJob.class, GrowthSummaryService.class, ChildAccessGuard.class})
+class GrowthSummaryRebuildJobTest {
+
+    @Autowired
+    private GrowthSummaryRebuildJob growthSummaryRebuildJob;
+
+    @Autowired
+    private GrowthSummaryRepository growthSummaryRepository;
+
+    @Autowired
+    private GrowthRecordRepository growthRecordRepository;
+
+    @Autowired
+    private ChildRepository childRepository;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    private final List<Family> families = new ArrayList<>();
+    private final List<Child> children = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        children.forEach(c -> growthSummaryRepository.deleteById(c.getId()));
+        growthRecordRepository.deleteAll(growthRecordRepository.findAll().stream()
+                .filter(r -> children.stream().anyMatch(c -> c.getId().equals(r.getChild().getId())))
+                .toList());
+        childRepository.deleteAll(children);
+        familyRepository.deleteAll(families);
+    }
+
+    @Test
+    void testRebuildAll_RebuildsEveryChild() {
+        // Positive case: Every child gets a summary matching its records, across several batches
+        Family family = familyRepository.save(new Family());
+        families.add(family);
+        for (int i = 0; i < 5; i++) {
+            Child child = childRepository.save(new Child("Child " + i, i % 2 == 0, LocalDate.of(2022, 1, 1), null, family));
+            children.add(child);
+            for (int day = 0; day <= i; day++) {
+                growthRecordRepository.save(new GrowthRecord(null, LocalDate.of(2022, 2, 1).plusDays(day), 55.0 + day, 4.0 + day,
+                        GrowthRecord.GrowthType.PHYSICAL, GrowthRecord.StatusType.ACHIEVED, child));
+            }
+        }
+
+        assertTrue(growthSummaryRebuildJob.rebuildAll() >= children.size());
+
+        for (int i = 0; i < children.size(); i++) {
+            GrowthSummary summary = growthSummaryRepository.findById(children.get(i).getId()).orElseThrow();
+            assertEquals(i + 1, summary.getRecordCount());
+            assertEquals(i + 1, summary.getWeight().getCount());
+            assertEquals(4.0, summary.getWeight().getMin());
+            assertEquals(4.0 + i, summary.getWeight().getLatestValue());
+            assertEquals(55.0 + i, summary.getHeight().getMax());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.kidic.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LargestTriangleThreeBucketsTest {
+
+    @Test
+    void testSelect_KeepsEndsAndPeak() {
+        int length = 1000;
+        double[] x = new double[length];
+        double[] y = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = i;
+            y[i] = Math.sin(i / 50.0);
+        }
+        y[321] = 10;
+
+        int[] kept = LargestTriangleThreeBuckets.select(x, y, length, 20);
+
+        assertEquals(20, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(length - 1, kept[19]);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1], "Indices are strictly increasing");
+        }
+        assertTrue(java.util.Arrays.stream(kept).anyMatch(index -> index == 321));
+    }
+
+    @Test
+    void testSelect_ShortSeriesUnchanged() {
+        double[] x = {1, 2, 3};
+        double[] y = {5, 6, 7};
+        assertArrayEquals(new int[]{0, 1, 2}, LargestTriangleThreeBuckets.select(x, y, 3, 10));
+        assertArrayEquals(new int[0], LargestTriangleThreeBuckets.select(x, y, 0, 10));
+    }
+
+    @Test
+    void testSelect_UsesOnlyLength() {
+        // The arrays may be larger than the series, as when they are shared by two series
+        double[] x = {1, 2, 3, 4, 0, 0};
+        double[] y = {1, 9, 1, 1, 0, 0};
+        assertArrayEquals(new int[]{0, 1, 3}, LargestTriangleThreeBuckets.select(x, y, 4, 3));
+    }
+
+    @Test
+    void testSelect_InvalidThreshold() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LargestTriangleThreeBuckets.select(new double[5], new double[5], 5, 2));
+    }
+}
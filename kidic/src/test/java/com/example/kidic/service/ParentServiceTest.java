@@ -0,0 +1,87 @@
+package com.example.kidic.service;
+
+import com.example.kidic.config.FamilyCache;
+import com.example.kidic.config.JwtService;
+import com.example.kidic.config.ParentPrincipalCache;
+import com.example.kidic.dto.ParentUpdateRequestDTO;
+import com.example.kidic.entity.Parent;
+import com.example.kidic.repository.ParentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ParentService.class, FileSystemBlobStore.class})
+class ParentServiceTest {
+
+    private static final String TOKEN = "token";
+    private static final String EMAIL = "john.doe@example.com";
+
+    @Autowired
+    private ParentService parentService;
+
+    @Autowired
+    private ParentRepository parentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private FamilyDashboardService familyDashboardService;
+
+    @MockitoBean
+    private ParentPrincipalCache parentPrincipalCache;
+
+    @MockitoBean
+    private FamilyCache familyCache;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private DatabaseBlobReader databaseBlobReader;
+
+    @MockitoBean
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persistAndFlush(new Parent("John Doe", "1234567890", EMAIL, true, "password123"));
+        when(jwtService.extractUsername(TOKEN)).thenReturn(EMAIL);
+    }
+
+    @Test
+    void testUpdateParent_SizeFromContent() throws Exception {
+        // Negative case: A client supplied size is ignored in favour of the content length
+        byte[] content = {1, 2, 3, 4, 5};
+        parentService.updateParent(TOKEN, ParentUpdateRequestDTO.builder()
+                .profilePictureType(Parent.ProfilePictureType.CUSTOM)
+                .profilePictureContent(content)
+                .profilePictureSize(1_000_000L)
+                .build());
+
+        assertEquals(5L, parentRepository.findByEmail(EMAIL).orElseThrow().getProfilePictureSize());
+    }
+
+    @Test
+    void testUpdateParent_SizeWithoutContent() throws Exception {
+        // Negative case: A size without content does not change the stored size
+        parentService.updateParent(TOKEN, ParentUpdateRequestDTO.builder()
+                .profilePictureSize(1_000_000L)
+                .build());
+
+        assertNull(parentRepository.findByEmail(EMAIL).orElseThrow().getProfilePictureSize());
+    }
+}